@@ -9,6 +9,7 @@ import it.unicam.cs.followme.utilities.FollowMeParserException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -80,6 +81,22 @@ public class App {
         service.execute(millis, simTime, action);
     }
 
+    /**
+     * Executes the simulation for the RobotSpaceService, recording the state of the robots after each tick
+     * into a binary trajectory file rather than printing it.
+     *
+     * @param service The RobotSpaceService instance.
+     * @param millis The time per instruction in milliseconds.
+     * @param simTime The simulation time per instruction in milliseconds.
+     * @param file The trajectory file to write.
+     * @throws IOException If there is an error writing the trajectory file.
+     * @throws RobotExecutionException If there is an error executing the robot program.
+     */
+    private static void recordTrajectory(RobotSpaceService service, long millis, long simTime, Path file) throws IOException, RobotExecutionException {
+        service.executeRecording(millis, simTime, file);
+        System.out.println("Trajectory written to " + file);
+    }
+
     /**
      * The main method for the RobotSpace application.
      * This method parses the command line arguments, sets up the environment and the robot program,
@@ -92,7 +109,7 @@ public class App {
                 if (args.length < 7) {
                     throw new IllegalArgumentException("""
                             Not enough arguments.
-                            Usage: <numRobots> <envType> <env> <progType> <prog> <tpi> <stpi>
+                            Usage: <numRobots> <envType> <env> <progType> <prog> <tpi> <stpi> [--trajectory <file>]
                             
                             Arguments:
                                 numRobots: Number of robots to simulate. Robots will be placed randomly in the grid according to the environment defined.
@@ -104,6 +121,7 @@ public class App {
                                 prog: If the type was file, an absolute path to the file containing the program. Otherwise a string, use \\n to separate new lines.
                                 tpi: Time per instruction (ms), how much time the program should sleep before executing the next instruction, can be 0, it will influence how the CONTINUE instruction works. Should be 1000ms by default.
                                 stpi: Simulation time per instruction (ms), how much time should pass in the simulation for every instruction executed.
+                                --trajectory: Record the state of the robots at every tick into a binary trajectory file instead of printing it.
                             """);
                 }
 
@@ -116,6 +134,15 @@ public class App {
                 Integer millis = Integer.parseInt(args[5]);
                 Integer simTime = Integer.parseInt(args[6]);
 
+                if (args.length > 7) {
+                    if (args.length != 9 || !args[7].equals("--trajectory")) {
+                        throw new IllegalArgumentException("Expected --trajectory <file> after the arguments.");
+                    }
+
+                    recordTrajectory(service, millis, simTime, Path.of(args[8]));
+                    return;
+                }
+
                 AtomicInteger tickNumber = new AtomicInteger();
 
                 execute(service, millis, simTime, () -> {
@@ -0,0 +1,74 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.labels.Circle;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.labels.Rectangle;
+import com.github.deputation.labels.Shape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up the label of a point by scanning every shape in declaration order against looking it up
+ * in the bounding-volume hierarchy and in the precomputed raster, as the amount of shapes grows.
+ *
+ * The shapes are a mix of circles and rectangles scattered over a square map whose side grows with the square
+ * root of the shape count, so that the density of shapes, and thus the expected amount of overlapping shapes at
+ * a point, stays the same whatever the count, as in a warehouse map made of many small zones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvironmentLookupBenchmark {
+    /**
+     * Amount of query points, cycled through by the benchmark.
+     */
+    private static final int QUERIES = 4096;
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int shapes;
+
+    @Param({"LINEAR", "BVH", "RASTER"})
+    private Environment.IndexMode indexMode;
+
+    private Environment environment;
+    private double[] queryX;
+    private double[] queryY;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double side = Math.sqrt(shapes) * 20;
+
+        List<Shape> list = new ArrayList<>(shapes);
+        for (int i = 0; i < shapes; i++) {
+            double x = random.nextDouble() * side;
+            double y = random.nextDouble() * side;
+            double size = 2 + random.nextDouble() * 8;
+            list.add(random.nextBoolean()
+                    ? new Circle("Z" + i, x, y, size / 2)
+                    : new Rectangle("Z" + i, x, y, size, size));
+        }
+        environment = new Environment(list, indexMode);
+
+        queryX = new double[QUERIES];
+        queryY = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryX[i] = random.nextDouble() * side;
+            queryY[i] = random.nextDouble() * side;
+        }
+    }
+
+    @Benchmark
+    public Shape lookup() {
+        int i = next++ & (QUERIES - 1);
+        return environment.findShape(queryX[i], queryY[i]);
+    }
+}
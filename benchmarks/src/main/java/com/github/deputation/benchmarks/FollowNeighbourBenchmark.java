@@ -0,0 +1,125 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.entities.SpatialHashGrid;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of one swarm-wide round of FOLLOW neighbour queries when every robot scans every
+ * signaling robot (what Robot.getValidRobots used to do) against building a SpatialHashGrid once and
+ * querying it.
+ *
+ * The arena grows with the swarm so that the density of robots stays constant, as it would in a real
+ * deployment. The linear scan grows quadratically (16x per 4x robots) while the grid grows about linearly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FollowNeighbourBenchmark {
+    /**
+     * Average distance between neighbouring robots, in meters.
+     */
+    private static final double SPACING = 2.0;
+
+    /**
+     * FOLLOW distance used by every query.
+     */
+    private static final double FOLLOW_DISTANCE = 5.0;
+
+    @Param({"1000", "4000", "16000"})
+    public int swarmSize;
+
+    private double[] xs;
+    private double[] ys;
+    private Integer[] ids;
+    private SpatialHashGrid<Integer> grid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double side = Math.sqrt(swarmSize) * SPACING;
+        xs = new double[swarmSize];
+        ys = new double[swarmSize];
+        ids = new Integer[swarmSize];
+
+        for (int i = 0; i < swarmSize; i++) {
+            ids[i] = i;
+            xs[i] = random.nextDouble() * side;
+            ys[i] = random.nextDouble() * side;
+        }
+
+        grid = new SpatialHashGrid<>(FOLLOW_DISTANCE);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        for (int robot = 0; robot < swarmSize; robot++) {
+            int found = 0;
+            double sumX = 0;
+            double sumY = 0;
+
+            for (int other = 0; other < swarmSize; other++) {
+                double deltaX = xs[other] - xs[robot];
+                double deltaY = ys[other] - ys[robot];
+
+                if (other != robot && Math.sqrt(deltaX * deltaX + deltaY * deltaY) <= FOLLOW_DISTANCE) {
+                    found++;
+                    sumX += xs[other];
+                    sumY += ys[other];
+                }
+            }
+
+            blackhole.consume(found);
+            blackhole.consume(sumX + sumY);
+        }
+    }
+
+    @Benchmark
+    public void spatialHash(Blackhole blackhole) {
+        grid.clear();
+        for (int i = 0; i < swarmSize; i++) {
+            grid.add(ids[i], xs[i], ys[i]);
+        }
+        grid.build();
+
+        Accumulator accumulator = new Accumulator();
+        for (int robot = 0; robot < swarmSize; robot++) {
+            accumulator.reset(robot);
+            grid.query(xs[robot], ys[robot], FOLLOW_DISTANCE, accumulator);
+
+            blackhole.consume(accumulator.found);
+            blackhole.consume(accumulator.sumX + accumulator.sumY);
+        }
+    }
+
+    /**
+     * Sums the positions of the neighbours of a robot, skipping the robot itself.
+     */
+    private static final class Accumulator implements SpatialHashGrid.Visitor<Integer> {
+        private int self;
+        private int found;
+        private double sumX, sumY;
+
+        void reset(int self) {
+            this.self = self;
+            found = 0;
+            sumX = 0;
+            sumY = 0;
+        }
+
+        @Override
+        public void visit(Integer item, double x, double y) {
+            if (item != self) {
+                found++;
+                sumX += x;
+                sumY += y;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.instructions.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares dispatching on a stream of instructions by instruction type strings, the way the tree interpreter
+ * did (an Objects.equals check, then a string switch), against a switch over their Opcode.
+ *
+ * The string switch hashes the type and compares it with the matching case label. The enum switch compiles to a
+ * jump table over the ordinal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstructionDispatchBenchmark {
+    /**
+     * Amount of instructions dispatched per invocation.
+     */
+    private static final int STREAM_LENGTH = 4096;
+
+    private RobotInstruction[] stream;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<RobotInstruction> kinds = List.of(
+                new MoveInstruction(new double[]{1, 0, 1}),
+                new MoveRandomInstruction(new double[]{-1, 1, -1, 1, 1}),
+                new SignalInstruction("A"),
+                new UnsignalInstruction("A"),
+                new FollowInstruction("A", new double[]{5, 1}),
+                new StopInstruction(),
+                new ContinueInstruction(1),
+                new RepeatInstruction(2, List.of()),
+                new UntilInstruction("Z", List.of()),
+                new DoForeverInstruction(List.of()),
+                new EndInstruction());
+
+        Random random = new Random(42);
+        stream = new RobotInstruction[STREAM_LENGTH];
+        for (int i = 0; i < STREAM_LENGTH; i++) {
+            stream[i] = kinds.get(random.nextInt(kinds.size()));
+        }
+    }
+
+    @Benchmark
+    public int stringDispatch() {
+        int result = 0;
+
+        for (RobotInstruction instruction : stream) {
+            String type = instruction.getInstructionType();
+
+            if (Objects.equals(type, "MOVE")) {
+                result += 1;
+                continue;
+            }
+
+            switch (type) {
+                case "MOVE_RANDOM" -> result += 2;
+                case "SIGNAL" -> result += 3;
+                case "UNSIGNAL" -> result += 4;
+                case "FOLLOW" -> result += 5;
+                case "STOP" -> result += 6;
+                case "CONTINUE" -> result += 7;
+                case "REPEAT" -> result += 8;
+                case "UNTIL" -> result += 9;
+                case "DOFOREVER" -> result += 10;
+                case "END" -> result += 11;
+                default -> throw new IllegalStateException(type);
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int opcodeDispatch() {
+        int result = 0;
+
+        for (RobotInstruction instruction : stream) {
+            switch (instruction.getOpcode()) {
+                case MOVE -> result += 1;
+                case MOVE_RANDOM -> result += 2;
+                case SIGNAL -> result += 3;
+                case UNSIGNAL -> result += 4;
+                case FOLLOW -> result += 5;
+                case STOP -> result += 6;
+                case CONTINUE -> result += 7;
+                case REPEAT -> result += 8;
+                case UNTIL -> result += 9;
+                case DO_FOREVER -> result += 10;
+                case END -> result += 11;
+                default -> throw new IllegalStateException(instruction.getOpcode().name());
+            }
+        }
+
+        return result;
+    }
+}
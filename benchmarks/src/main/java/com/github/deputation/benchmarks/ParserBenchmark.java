@@ -0,0 +1,73 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import it.unicam.cs.followme.utilities.ShapeData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of FollowMeParser on programs and environments of growing size, parsing into a fresh
+ * RobotProgram every time as RobotSpaceService does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"100", "10000"})
+    public int lines;
+
+    private String program;
+    private String environment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder programBuilder = new StringBuilder();
+        int written = 0;
+        while (written < lines) {
+            programBuilder.append("REPEAT 3\n")
+                    .append("MOVE 1 0 1\n")
+                    .append("SIGNAL A\n")
+                    .append("FOLLOW A 5 1\n")
+                    .append("UNTIL Z\n")
+                    .append("MOVE RANDOM -1 1 -1 1 1\n")
+                    .append("DONE\n")
+                    .append("UNSIGNAL A\n")
+                    .append("DONE\n");
+            written += 9;
+        }
+        program = programBuilder.toString();
+
+        Random random = new Random(42);
+        StringBuilder environmentBuilder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            if (i % 2 == 0) {
+                environmentBuilder.append("Z").append(i).append(" CIRCLE ")
+                        .append(random.nextInt(1000)).append(' ').append(random.nextInt(1000)).append(" 5\n");
+            } else {
+                environmentBuilder.append("Z").append(i).append(" RECTANGLE ")
+                        .append(random.nextInt(1000)).append(' ').append(random.nextInt(1000)).append(" 4 2\n");
+            }
+        }
+        environment = environmentBuilder.toString();
+    }
+
+    @Benchmark
+    public RobotProgram parseProgram() throws FollowMeParserException {
+        RobotProgram robotProgram = new RobotProgram();
+        new FollowMeParser(robotProgram).parseRobotProgram(program);
+        return robotProgram;
+    }
+
+    @Benchmark
+    public List<ShapeData> parseEnvironment() throws FollowMeParserException {
+        return new FollowMeParser(new RobotProgram()).parseEnvironment(environment);
+    }
+}
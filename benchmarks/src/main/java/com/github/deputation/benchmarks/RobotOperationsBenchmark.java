@@ -0,0 +1,104 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.labels.Circle;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.labels.Rectangle;
+import com.github.deputation.labels.Shape;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the single-robot operations a tick is made of: integrating its motion, a FOLLOW with neighbours in
+ * range, looking its environment label up, and the isInside tests of the shapes behind that lookup.
+ *
+ * Every invocation is one operation, so the scores read as the cost of the operation itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RobotOperationsBenchmark {
+    /**
+     * Amount of neighbours signaling the followed label.
+     */
+    private static final int NEIGHBOURS = 64;
+
+    private static final double[] FOLLOW_PARAMETERS = {5, 1};
+
+    private Robot robot;
+    private Circle circle;
+    private Rectangle rectangle;
+    private double x, y;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+
+        List<Robot> neighbours = new ArrayList<>();
+        for (int i = 0; i < NEIGHBOURS; i++) {
+            Robot neighbour = new Robot();
+            neighbour.setX(random.nextDouble() * 8 - 4);
+            neighbour.setY(random.nextDouble() * 8 - 4);
+            neighbour.Signal("A");
+            neighbours.add(neighbour);
+        }
+
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            shapes.add(new Circle("C" + i, random.nextDouble() * 20, random.nextDouble() * 20, 2));
+            shapes.add(new Rectangle("R" + i, random.nextDouble() * 20, random.nextDouble() * 20, 3, 2));
+        }
+
+        robot = new Robot();
+        robot.inputSignalingRobots(neighbours);
+        robot.setEnvironment(new Environment(shapes));
+        robot.setX(10);
+        robot.setY(10);
+
+        circle = new Circle("C", 0, 0, 2);
+        rectangle = new Rectangle("R", 0, 0, 3, 2);
+        x = 1.2;
+        y = 0.7;
+    }
+
+    @Benchmark
+    public double updatePosition() {
+        // Start every step from the same place, far from the target, so the robot never arrives.
+        robot.setX(0);
+        robot.setY(0);
+        robot.Move(10, 5, 1);
+        robot.updateHeading();
+        robot.updatePosition(100);
+        return robot.getX();
+    }
+
+    @Benchmark
+    public double follow() throws RobotExecutionException {
+        robot.Follow("A", FOLLOW_PARAMETERS);
+        return robot.getTargetX();
+    }
+
+    @Benchmark
+    public Optional<String> environmentalLabel() {
+        return robot.getEnvironmentalLabel();
+    }
+
+    @Benchmark
+    public boolean circleIsInside() {
+        return circle.isInside(x, y);
+    }
+
+    @Benchmark
+    public boolean rectangleIsInside() {
+        return rectangle.isInside(x, y);
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.deputation.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the results of a {@link ScalingSuite} run against a baseline, run by run.
+ *
+ * A run regresses when its robot-ticks per second drop, or its bytes allocated per tick or peak heap grow, by more
+ * than the tolerance (20% by default) relative to the baseline. Allocation within 64 bytes per tick of the baseline
+ * is never a regression, so that allocation-free runs don't fail on noise. Every compared run is printed with its
+ * ratios to the baseline, and the process exits with status 1 if any run regressed, so it can gate a build.
+ *
+ * Run it with `gradle :benchmarks:compareScaling`, or pass the files and tolerance as arguments:
+ * `baseline.csv results.csv [tolerance]`.
+ */
+public class ScalingComparison {
+    /**
+     * Allocation per tick below which differences are ignored, in bytes.
+     */
+    private static final double ALLOCATION_NOISE = 64;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ScalingComparison <baseline.csv> <results.csv> [tolerance]");
+            System.exit(2);
+        }
+
+        Map<String, ScalingSuite.Result> baseline = read(Path.of(args[0]));
+        Map<String, ScalingSuite.Result> results = read(Path.of(args[1]));
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+
+        System.out.printf("%-12s %9s %16s %14s %12s  %s%n",
+                "scenario", "robots", "robot-ticks/s", "bytes/tick", "peak heap", "verdict");
+
+        int regressions = 0;
+        for (Map.Entry<String, ScalingSuite.Result> entry : results.entrySet()) {
+            ScalingSuite.Result expected = baseline.get(entry.getKey());
+            ScalingSuite.Result actual = entry.getValue();
+
+            if (expected == null) {
+                System.out.printf("%-12s %9d %16s %14s %12s  no baseline%n", actual.scenario(), actual.robots(),
+                        "", "", "");
+                continue;
+            }
+
+            double speed = actual.robotTicksPerSecond() / expected.robotTicksPerSecond();
+            double allocation = ratio(actual.bytesPerTick(), expected.bytesPerTick());
+            double heap = ratio(actual.peakHeapBytes(), expected.peakHeapBytes());
+
+            boolean regressed = speed < 1 - tolerance
+                    || (actual.bytesPerTick() - expected.bytesPerTick() > ALLOCATION_NOISE && allocation > 1 + tolerance)
+                    || heap > 1 + tolerance;
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.printf("%-12s %9d %15.2fx %13.2fx %11.2fx  %s%n", actual.scenario(), actual.robots(),
+                    speed, allocation, heap, regressed ? "REGRESSION" : "ok");
+        }
+
+        System.out.println(regressions == 0 ? "No regressions." : regressions + " regression(s).");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Divides two measurements, treating two zeros as equal.
+     */
+    private static double ratio(double actual, double expected) {
+        if (expected == 0) {
+            return actual == 0 ? 1 : Double.POSITIVE_INFINITY;
+        }
+        return actual / expected;
+    }
+
+    /**
+     * Reads a results file, keyed by scenario and swarm size.
+     */
+    private static Map<String, ScalingSuite.Result> read(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        if (lines.isEmpty() || !lines.get(0).equals(ScalingSuite.HEADER)) {
+            throw new IOException(path + " is not a scaling results file.");
+        }
+
+        Map<String, ScalingSuite.Result> results = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (!line.isBlank()) {
+                ScalingSuite.Result result = ScalingSuite.Result.fromCsv(line);
+                results.put(result.scenario() + "@" + result.robots(), result);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.RobotSpaceService;
+import com.github.deputation.TickScheduler;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Macro benchmark running standard scenarios end to end through RobotSpaceService at growing swarm sizes.
+ *
+ * Every scenario parses its program and an environment sized for the swarm, then executes unpaced on a single
+ * thread. For every run it reports ticks per second, robot-ticks per second and bytes allocated per tick, measured
+ * from the end of the first tick so that placement and programming are left out, and the peak heap of the whole
+ * run. Results are written as CSV for {@link ScalingComparison} to check against the baseline in
+ * benchmarks/baselines. Run it with `gradle :benchmarks:scaling`, passing arguments with --args, e.g.
+ * `--args="--sizes 10,1000 --scenarios flock --out build/scaling.csv"`.
+ */
+public class ScalingSuite {
+    /**
+     * Swarm sizes run when none are given on the command line.
+     */
+    private static final int[] DEFAULT_SIZES = {10, 1_000, 100_000, 1_000_000};
+
+    /**
+     * CSV header of the results.
+     */
+    static final String HEADER = "scenario,robots,ticks,ticksPerSecond,robotTicksPerSecond,bytesPerTick,peakHeapBytes";
+
+    /**
+     * Average distance between neighbouring robots in the crowded scenarios, in meters.
+     */
+    private static final double SPACING = 2.0;
+
+    /**
+     * The standard scenarios.
+     */
+    enum Scenario {
+        /**
+         * Every robot signals and repeatedly follows the flock within 5 meters.
+         */
+        FLOCK("flock", """
+                SIGNAL F
+                REPEAT 30
+                FOLLOW F 5 1
+                DONE
+                UNSIGNAL F
+                """, robots -> arena(side(robots, SPACING))),
+        /**
+         * Every robot heads east until it reaches one of the goal strips laid out every 20 meters.
+         */
+        ZONE_SEARCH("zone-search", """
+                UNTIL GOAL
+                MOVE 1 0 1
+                CONTINUE 1
+                DONE
+                SIGNAL FOUND
+                """, robots -> fieldWithGoals(side(robots, SPACING))),
+        /**
+         * Every robot walks a square patrol route made of nested loops.
+         */
+        PATROL("patrol", """
+                REPEAT 3
+                REPEAT 2
+                MOVE 1 0 1
+                CONTINUE 1
+                MOVE 0 1 1
+                CONTINUE 1
+                DONE
+                REPEAT 2
+                MOVE -1 0 1
+                CONTINUE 1
+                MOVE 0 -1 1
+                CONTINUE 1
+                DONE
+                DONE
+                """, robots -> arena(side(robots, SPACING))),
+        /**
+         * Every robot wanders randomly over a sparse map tiled with many labelled shapes.
+         */
+        RANDOM_WALK("random-walk", """
+                REPEAT 10
+                MOVE RANDOM -5 5 -5 5 1
+                CONTINUE 2
+                DONE
+                """, robots -> tiles(side(robots, 10)));
+
+        private final String name;
+        private final String program;
+        private final IntFunction<String> environment;
+
+        Scenario(String name, String program, IntFunction<String> environment) {
+            this.name = name;
+            this.program = program;
+            this.environment = environment;
+        }
+
+        static Scenario byName(String name) {
+            return Arrays.stream(values())
+                    .filter(scenario -> scenario.name.equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown scenario " + name));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, FollowMeParserException, RobotExecutionException {
+        int[] sizes = DEFAULT_SIZES;
+        List<Scenario> scenarios = List.of(Scenario.values());
+        Path out = Path.of("build", "scaling.csv");
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--scenarios" -> scenarios = Arrays.stream(args[i + 1].split(",")).map(Scenario::byName).toList();
+                case "--out" -> out = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        System.out.printf("%-12s %9s %7s %12s %16s %14s %14s%n",
+                "scenario", "robots", "ticks", "ticks/s", "robot-ticks/s", "bytes/tick", "peak heap (MB)");
+
+        for (Scenario scenario : scenarios) {
+            for (int size : sizes) {
+                Result result = run(scenario, size);
+                lines.add(result.toCsv());
+                System.out.printf("%-12s %9d %7d %12.1f %16.0f %14.0f %14.1f%n", scenario.name, size, result.ticks,
+                        result.ticksPerSecond, result.robotTicksPerSecond, result.bytesPerTick,
+                        result.peakHeapBytes / 1e6);
+            }
+        }
+
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.write(out, lines);
+        System.out.println("Results written to " + out);
+    }
+
+    /**
+     * The measurements of a run.
+     */
+    record Result(String scenario, int robots, long ticks, double ticksPerSecond, double robotTicksPerSecond,
+                  double bytesPerTick, long peakHeapBytes) {
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.1f,%d", scenario, robots, ticks, ticksPerSecond,
+                    robotTicksPerSecond, bytesPerTick, peakHeapBytes);
+        }
+
+        static Result fromCsv(String line) {
+            String[] fields = line.split(",");
+            return new Result(fields[0], Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]),
+                    Long.parseLong(fields[6]));
+        }
+    }
+
+    /**
+     * Runs a scenario at a swarm size and measures it.
+     */
+    private static Result run(Scenario scenario, int robots) throws FollowMeParserException, RobotExecutionException {
+        RobotSpaceService service = new RobotSpaceService(robots);
+        service.compileRobotProgram(scenario.program);
+        service.compileEnvironment(scenario.environment.apply(robots));
+        service.setSeed(42);
+        service.setTickScheduler(TickScheduler.unpaced());
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        // Ticks, then time and allocated bytes at the end of the first and of the last tick. Measured from the end
+        // of the first tick, when the swarm is placed and programmed.
+        long[] measured = new long[5];
+        service.execute(1000, 1000, () -> {
+            long now = System.nanoTime();
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            if (measured[0]++ == 0) {
+                measured[1] = now;
+                measured[2] = allocated;
+            }
+            measured[3] = now;
+            measured[4] = allocated;
+        });
+
+        long ticks = measured[0];
+        long intervals = Math.max(1, ticks - 1);
+        double seconds = Math.max(1, measured[3] - measured[1]) / 1e9;
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        return new Result(scenario.name, robots, ticks, intervals / seconds, (double) intervals * robots / seconds,
+                (double) (measured[4] - measured[2]) / intervals, peakHeap);
+    }
+
+    /**
+     * Side of a square arena holding the robots at the given spacing, at least 20 meters.
+     */
+    private static double side(int robots, double spacing) {
+        return Math.max(20, Math.sqrt(robots) * spacing);
+    }
+
+    /**
+     * A single square arena.
+     */
+    private static String arena(double side) {
+        return String.format(Locale.ROOT, "ARENA RECTANGLE %f %f %f %f%n", side / 2, side / 2, side, side);
+    }
+
+    /**
+     * A field tiled with 10 meter squares, crossed by 6 meter wide goal strips every 20 meters and bounded by one
+     * past its east edge, so that every robot heading east finds a goal. The strips are declared first, so they
+     * label the points they share with the tiles, and are few enough next to the tiles that hardly any robot is
+     * placed on a goal.
+     */
+    private static String fieldWithGoals(double side) {
+        StringBuilder environment = new StringBuilder();
+        for (double x = 15; x < side + 20; x += 20) {
+            environment.append(String.format(Locale.ROOT, "GOAL RECTANGLE %f %f %f %f%n", x, side / 2, 6.0, side));
+        }
+        return environment.append(tiles(side)).toString();
+    }
+
+    /**
+     * A field tiled with 10 meter squares.
+     */
+    private static String tiles(double side) {
+        StringBuilder environment = new StringBuilder();
+        for (double x = 5; x < side; x += 10) {
+            for (double y = 5; y < side; y += 10) {
+                environment.append(String.format(Locale.ROOT, "FIELD RECTANGLE %f %f %f %f%n", x, y, 10.0, 10.0));
+            }
+        }
+        return environment.toString();
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.HeapSwarmState;
+import com.github.deputation.entities.OffHeapSwarmState;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.entities.SwarmState;
+import com.github.deputation.language.CompiledProgram;
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.IntFunction;
+
+/**
+ * Size benchmark comparing whole swarms backed by the heap and off-heap swarm state stores at 1M and 10M robots.
+ *
+ * For every store and size it builds a RobotController, programs it and runs a tick, then reports the heap and
+ * direct memory the controller retains, robots included, and the time of one tick of the whole swarm. Run it with
+ * `gradle :benchmarks:footprint`; the 10M heap swarm needs a heap of about 2.5GB, the 10M off-heap swarm under 1GB
+ * of heap and about 1.6GB of direct memory. Pass sizes as arguments to measure other swarms.
+ */
+public class SwarmStateFootprint {
+    /**
+     * Swarm sizes measured when none are given on the command line.
+     */
+    private static final int[] DEFAULT_SIZES = {1_000_000, 10_000_000};
+
+    /**
+     * Ticks run before timing one.
+     */
+    private static final int WARMUP_TICKS = 5;
+
+    /**
+     * Program run by the swarm, keeping REPEAT counters, a last move and the random source of every robot in use.
+     */
+    private static final String PROGRAM = """
+            REPEAT 1000
+            MOVE RANDOM -10 10 -10 10 1
+            CONTINUE 1
+            DONE
+            """;
+
+    public static void main(String[] args) throws InterruptedException, FollowMeParserException,
+            RobotExecutionException {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        RobotProgram robotProgram = new RobotProgram();
+        new FollowMeParser(robotProgram).parseRobotProgram(PROGRAM);
+        CompiledProgram program = robotProgram.getCompiledProgram();
+
+        System.out.printf("%-9s %12s %14s %14s %12s%n", "store", "robots", "heap (MB)", "direct (MB)", "tick (ms)");
+        for (int size : sizes) {
+            measure("heap", size, HeapSwarmState::new, program);
+            measure("off-heap", size, OffHeapSwarmState::new, program);
+        }
+    }
+
+    /**
+     * Builds a swarm over a store, runs its program for a few ticks and prints its footprint and tick time.
+     */
+    private static void measure(String name, int size, IntFunction<SwarmState> factory, CompiledProgram program)
+            throws InterruptedException, RobotExecutionException {
+        // Direct buffers are freed by a cleaner after the collection, give it time to release the last store.
+        System.gc();
+        Thread.sleep(500);
+
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+
+        RobotController controller = new RobotController(factory.apply(size));
+        controller.seed(size);
+        controller.programSwarm(program);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            controller.tick(100, 100);
+        }
+
+        long heap = usedHeap() - heapBefore;
+        long direct = usedDirect() - directBefore;
+
+        long start = System.nanoTime();
+        controller.tick(100, 100);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%-9s %12d %14.1f %14.1f %12.1f%n", name, size,
+                heap / 1e6, direct / 1e6, elapsed / 1e6);
+
+        // Keeps the swarm reachable until it has been measured.
+        if (controller.getSwarm().size() != size) {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Heap in use after a full collection.
+     */
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Direct memory in use by direct buffers.
+     */
+    private static long usedDirect() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
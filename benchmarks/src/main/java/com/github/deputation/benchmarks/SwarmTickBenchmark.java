@@ -0,0 +1,85 @@
+package com.github.deputation.benchmarks;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a whole swarm tick of RobotController, and its sensor update phase on its own, as the swarm grows.
+ *
+ * The robots run a program that never ends, mixing moves, signals and FOLLOW, so every invocation measures a
+ * steady-state tick. The arena grows with the swarm so that the density of robots stays constant: a tick that
+ * scales well takes about 10x as long per 10x robots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwarmTickBenchmark {
+    /**
+     * Average distance between neighbouring robots, in meters.
+     */
+    private static final double SPACING = 2.0;
+
+    private static final String PROGRAM = """
+            DO FOREVER
+            SIGNAL A
+            MOVE RANDOM -5 5 -5 5 1
+            CONTINUE 1
+            FOLLOW A 5 1
+            UNSIGNAL A
+            FOLLOW A 5 1
+            STOP
+            DONE
+            """;
+
+    @Param({"100", "1000", "10000"})
+    public int swarmSize;
+
+    private RobotController controller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FollowMeParserException, RobotExecutionException {
+        RobotProgram program = new RobotProgram();
+        new FollowMeParser(program).parseRobotProgram(PROGRAM);
+
+        controller = new RobotController(swarmSize);
+        controller.seed(42);
+        controller.programSwarm(program.getCompiledProgram());
+
+        Random random = new Random(42);
+        double side = Math.sqrt(swarmSize) * SPACING;
+        List<Robot> swarm = controller.getSwarm();
+        for (Robot robot : swarm) {
+            robot.setX(random.nextDouble() * side);
+            robot.setY(random.nextDouble() * side);
+        }
+
+        // Let the swarm settle into its steady state first.
+        for (int i = 0; i < 20; i++) {
+            controller.tick(1000, 100);
+        }
+    }
+
+    @Benchmark
+    public RobotController tick() {
+        controller.tick(1000, 100);
+        return controller;
+    }
+
+    @Benchmark
+    public RobotController sensorUpdate() {
+        controller.sensorUpdate();
+        return controller;
+    }
+}
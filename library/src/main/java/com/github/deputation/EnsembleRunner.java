@@ -0,0 +1,227 @@
+package com.github.deputation;
+
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.language.CompiledProgram;
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs ensembles of independent simulations of the same program and environment, e.g. Monte Carlo replicas
+ * differing by seed and swarm size.
+ *
+ * The program and the environment are compiled once and shared by every simulation, as both are immutable; every
+ * simulation gets a swarm of its own, seeded from its replica, and runs unpaced with idle ticks skipped. Simulations
+ * run concurrently on an executor and their summaries are streamed back as they complete.
+ */
+public class EnsembleRunner {
+    /**
+     * The program every simulation runs.
+     */
+    private final CompiledProgram program;
+
+    /**
+     * The environment every simulation runs in.
+     */
+    private final Environment environment;
+
+    /**
+     * Time it takes to execute an instruction, and simulation time every tick advances by, in milliseconds.
+     */
+    private final long millis, simTime;
+
+    /**
+     * Amount of ticks after which a simulation that isn't done is stopped.
+     */
+    private final long maxTicks;
+
+    /**
+     * A simulation to run.
+     *
+     * @param seed   The root seed of the swarm's random sources.
+     * @param robots The amount of robots of the swarm.
+     */
+    public record Replica(long seed, int robots) {
+    }
+
+    /**
+     * The outcome of a simulation.
+     *
+     * @param replica      The simulation.
+     * @param ticks        The amount of ticks simulated.
+     * @param done         Whether every robot finished its program, rather than the simulation being stopped.
+     * @param centroidX    The mean x-coordinate of the swarm at the end.
+     * @param centroidY    The mean y-coordinate of the swarm at the end.
+     * @param elapsedNanos The wall-clock time the simulation took.
+     */
+    public record Summary(Replica replica, long ticks, boolean done, double centroidX, double centroidY,
+                          long elapsedNanos) {
+    }
+
+    /**
+     * The outcome of an ensemble.
+     *
+     * @param simulations  The amount of simulations run.
+     * @param elapsedNanos The wall-clock time the ensemble took.
+     */
+    public record Report(int simulations, long elapsedNanos) {
+        /**
+         * Computes the throughput of the ensemble.
+         *
+         * @return The amount of simulations run per second.
+         */
+        public double simulationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : simulations * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * Constructs an EnsembleRunner for an already compiled program and environment.
+     *
+     * @param program     The program every simulation runs.
+     * @param environment The environment every simulation runs in.
+     * @param millis      The time it takes to execute an instruction, in milliseconds.
+     * @param simTime     The simulation time every tick advances by, in milliseconds.
+     * @param maxTicks    The amount of ticks after which a simulation that isn't done is stopped.
+     * @throws IllegalArgumentException if a time is not positive or maxTicks is negative.
+     */
+    public EnsembleRunner(CompiledProgram program, Environment environment, long millis, long simTime, long maxTicks) {
+        if (millis <= 0 || simTime <= 0) {
+            throw new IllegalArgumentException("Instruction and simulation times must be positive.");
+        }
+        if (maxTicks < 0) {
+            throw new IllegalArgumentException("The tick limit can't be negative.");
+        }
+
+        this.program = program;
+        this.environment = environment;
+        this.millis = millis;
+        this.simTime = simTime;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Creates an EnsembleRunner by parsing a program and an environment once.
+     *
+     * @param programSource     The source of the FollowMe program.
+     * @param environmentSource The environment data, null or blank for an empty environment.
+     * @param millis            The time it takes to execute an instruction, in milliseconds.
+     * @param simTime           The simulation time every tick advances by, in milliseconds.
+     * @param maxTicks          The amount of ticks after which a simulation that isn't done is stopped.
+     * @return The runner.
+     * @throws FollowMeParserException if the program or the environment can't be parsed.
+     */
+    public static EnsembleRunner compile(String programSource, String environmentSource, long millis, long simTime,
+                                         long maxTicks) throws FollowMeParserException {
+        RobotProgram robotProgram = new RobotProgram();
+        FollowMeParser parser = new FollowMeParser(robotProgram);
+
+        parser.parseRobotProgram(programSource);
+        if (environmentSource != null && !environmentSource.isBlank()) {
+            robotProgram.loadShapeData(parser.parseEnvironment(environmentSource));
+        }
+
+        return new EnsembleRunner(robotProgram.getCompiledProgram(), robotProgram.getEnvironment(), millis, simTime,
+                maxTicks);
+    }
+
+    /**
+     * Runs a single simulation on the calling thread.
+     *
+     * @param replica The simulation to run.
+     * @return Its summary.
+     * @throws RobotExecutionException if a robot fails to execute the program.
+     */
+    public Summary simulate(Replica replica) throws RobotExecutionException {
+        long start = System.nanoTime();
+
+        RobotController controller = new RobotController(replica.robots());
+        controller.seed(replica.seed());
+        controller.getSwarm().forEach(robot -> robot.setEnvironment(environment));
+        controller.programSwarm(program);
+
+        boolean done = controller.isSwarmDone();
+        while (!done && controller.getTicks() < maxTicks) {
+            if (controller.skipIdleTicks(millis, simTime, maxTicks - controller.getTicks()) == 0) {
+                controller.tick(millis, simTime);
+            }
+            done = controller.isSwarmDone();
+        }
+
+        double sumX = 0;
+        double sumY = 0;
+        for (Robot robot : controller.getSwarm()) {
+            sumX += robot.getX();
+            sumY += robot.getY();
+        }
+        int robots = Math.max(1, replica.robots());
+
+        return new Summary(replica, controller.getTicks(), done, sumX / robots, sumY / robots,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Runs an ensemble on a fixed pool of threads, shut down afterwards.
+     *
+     * @param replicas    The simulations to run.
+     * @param parallelism The amount of simulations to run at once.
+     * @param sink        Receives every summary as its simulation completes, on the calling thread.
+     * @return The report of the ensemble.
+     * @throws IllegalArgumentException if parallelism is not positive.
+     */
+    public Report run(List<Replica> replicas, int parallelism, Consumer<Summary> sink) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive.");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            return run(replicas, executor, sink);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs an ensemble on an executor, which bounds how many simulations run at once. If a simulation fails, the
+     * ones still pending are cancelled and the failure is rethrown.
+     *
+     * @param replicas The simulations to run.
+     * @param executor The executor running the simulations.
+     * @param sink     Receives every summary as its simulation completes, on the calling thread.
+     * @return The report of the ensemble.
+     */
+    public Report run(List<Replica> replicas, ExecutorService executor, Consumer<Summary> sink) {
+        long start = System.nanoTime();
+        CompletionService<Summary> completions = new ExecutorCompletionService<>(executor);
+        List<Future<Summary>> futures = replicas.stream()
+                .map(replica -> completions.submit(() -> simulate(replica)))
+                .toList();
+
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                sink.accept(completions.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        return new Report(futures.size(), System.nanoTime() - start);
+    }
+}
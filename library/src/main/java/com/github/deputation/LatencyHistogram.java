@@ -0,0 +1,183 @@
+package com.github.deputation;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative latencies with a bounded relative error, in the manner of HdrHistogram.
+ *
+ * Values below 128 are counted exactly. Larger values are counted in log-linear buckets: every power of two is
+ * split into 64 equally wide buckets, so a value is reported at most 1/64 (about 1.6%) above what was recorded,
+ * whatever its magnitude. The buckets cover the whole range of long in a fixed array, so recording never allocates.
+ *
+ * A histogram is not thread safe.
+ */
+public class LatencyHistogram {
+    /**
+     * Bits of precision kept below the leading bit of a value.
+     */
+    private static final int SUB_BUCKET_BITS = 6;
+
+    /**
+     * Values below this are counted exactly, one bucket each.
+     */
+    private static final int EXACT_VALUES = 2 << SUB_BUCKET_BITS;
+
+    /**
+     * Amount of buckets covering [0, Long.MAX_VALUE].
+     */
+    private static final int BUCKETS = EXACT_VALUES + (Long.SIZE - 2 - SUB_BUCKET_BITS - 1) * (1 << SUB_BUCKET_BITS)
+            + (1 << SUB_BUCKET_BITS);
+
+    /**
+     * Amount of values recorded in every bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * Amount of values recorded.
+     */
+    private long count;
+
+    /**
+     * Sum, smallest and largest of the values recorded.
+     */
+    private long sum, min, max;
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        counts = new long[BUCKETS];
+        min = Long.MAX_VALUE;
+    }
+
+    /**
+     * Constructs a LatencyHistogram holding the same values as another.
+     *
+     * @param other The histogram to copy.
+     */
+    public LatencyHistogram(LatencyHistogram other) {
+        counts = other.counts.clone();
+        count = other.count;
+        sum = other.sum;
+        min = other.min;
+        max = other.max;
+    }
+
+    /**
+     * Records a value, clamping negative ones to 0.
+     *
+     * @param value The value, e.g. a duration in nanoseconds.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Finds the bucket counting a value.
+     */
+    private static int bucketOf(long value) {
+        if (value < EXACT_VALUES) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+        return EXACT_VALUES + (exponent - SUB_BUCKET_BITS - 1) * (1 << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Finds the largest value counted by a bucket.
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < EXACT_VALUES) {
+            return bucket;
+        }
+
+        int exponent = (bucket - EXACT_VALUES) / (1 << SUB_BUCKET_BITS) + SUB_BUCKET_BITS + 1;
+        int subBucket = (bucket - EXACT_VALUES) % (1 << SUB_BUCKET_BITS);
+        long lowest = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Retrieves the amount of values recorded.
+     *
+     * @return The amount of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the smallest value recorded.
+     *
+     * @return The smallest value, 0 if the histogram is empty.
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Retrieves the largest value recorded.
+     *
+     * @return The largest value, 0 if the histogram is empty.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Retrieves the mean of the values recorded.
+     *
+     * @return The mean, 0 if the histogram is empty.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Retrieves the value below which the given percentage of the recorded values fall, within the precision of
+     * the buckets and never above the largest value recorded.
+     *
+     * @param percentile The percentage, between 0 and 100.
+     * @return The value at the percentile, 0 if the histogram is empty.
+     * @throws IllegalArgumentException if the percentile is out of range.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Clears every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
@@ -2,13 +2,21 @@ package com.github.deputation;
 
 import com.github.deputation.entities.Robot;
 import com.github.deputation.entities.RobotController;
+import com.github.deputation.entities.SequentialTickEngine;
+import com.github.deputation.entities.TickEngine;
+import com.github.deputation.events.ProgramLoadEvent;
+import com.github.deputation.events.SimulationTickEvent;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.language.CompiledProgram;
 import com.github.deputation.language.RobotProgram;
+import com.github.deputation.trajectory.TrajectoryWriter;
 import it.unicam.cs.followme.utilities.FollowMeParser;
 import it.unicam.cs.followme.utilities.FollowMeParserException;
 import it.unicam.cs.followme.utilities.ShapeData;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -25,6 +33,14 @@ public class RobotSpaceService {
      * Robot controller.
      */
     private RobotController robotController;
+    /**
+     * Whether idle stretches of ticks are skipped instead of simulated one by one.
+     */
+    private boolean timeSkipping;
+    /**
+     * Scheduler pacing the ticks of executions.
+     */
+    private TickScheduler tickScheduler = TickScheduler.paced();
     /**
      * Initializes a new instance of the RobotSpaceService class.
      * @param robots the number of robots to be controlled by the service.
@@ -83,6 +99,35 @@ public class RobotSpaceService {
         return followMeParser.parseEnvironment(path);
     }
 
+    /**
+     * Chooses how the environment indexes its shapes for label lookups, taking effect from the next
+     * compileEnvironment call.
+     * @param indexMode the kind of index answering label lookups.
+     * @param rasterCellSize the side of the raster cells for the RASTER index mode, 0 or less to pick one automatically.
+     */
+    public void setEnvironmentIndex(Environment.IndexMode indexMode, double rasterCellSize) {
+        robotProgram.setEnvironmentIndex(indexMode, rasterCellSize);
+    }
+
+    /**
+     * Seeds the random placement and moves of the robots from a root seed, making executions reproducible.
+     * @param seed the root seed every robot's random source is split off.
+     */
+    public void setSeed(long seed) {
+        robotController.seed(seed);
+    }
+
+    /**
+     * Chooses whether execution jumps over stretches of ticks in which every robot is done or executing CONTINUE,
+     * solving the movement over them in closed form instead of ticking through them. Results stay equivalent: paced
+     * executions still wait one period per tick skipped, and when execute is given an action the swarm coasts
+     * through idle stretches one tick at a time, so that the action still runs after every tick.
+     * @param timeSkipping true to skip idle ticks.
+     */
+    public void setTimeSkipping(boolean timeSkipping) {
+        this.timeSkipping = timeSkipping;
+    }
+
     /**
      * Compiles environment data from a file and loads it into the robot program.
      * @param file the file to be parsed into environment data.
@@ -108,10 +153,11 @@ public class RobotSpaceService {
     }
 
     /**
-     * Makes the robots aware of the environmental data by setting it in each robot in the swarm.
+     * Makes the robots aware of the environmental data by sharing the environment with each robot in the swarm.
      */
     private void makeRobotsEnvironmentallyAware() {
-        robotController.getSwarm().forEach(r -> r.setEnvironmentalData(robotProgram.getEnvironmentalData()));
+        Environment environment = robotProgram.getEnvironment();
+        robotController.getSwarm().forEach(r -> r.setEnvironment(environment));
     }
 
     /**
@@ -123,23 +169,39 @@ public class RobotSpaceService {
     }
 
     /**
-     * Programs the swarm of robots with the compiled robot program.
+     * Programs the swarm of robots with the compiled robot program, recorded as a ProgramLoadEvent.
      */
     private void programTheSwarm() throws RobotExecutionException {
-        robotController.programSwarm(robotProgram.getCompiledProgram());
+        ProgramLoadEvent event = new ProgramLoadEvent();
+        event.begin();
+
+        CompiledProgram program = robotProgram.getCompiledProgram();
+        robotController.programSwarm(program);
+
+        if (event.shouldCommit()) {
+            event.robots = robotController.getSwarm().size();
+            event.instructions = program.getInstructions().size();
+            event.bytecodeLength = program.getBytecode().getCode().length;
+            event.maxRepeatDepth = program.getBytecode().getMaxRepeatDepth();
+            event.commit();
+        }
     }
 
     /**
-     * Puts the thread to sleep for the time it takes to execute an instruction.
-     *
-     * This is purely artificial for the purposes of adhering to the spec, it is very much not needed.
-     * */
-    private void waitInstructionTime(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+     * Sets the scheduler pacing the ticks of executions, by default one pacing them in real time at one tick per
+     * instruction time.
+     * @param tickScheduler the scheduler, e.g. TickScheduler.unpaced() to run as fast as possible.
+     */
+    public void setTickScheduler(TickScheduler tickScheduler) {
+        this.tickScheduler = tickScheduler;
+    }
+
+    /**
+     * Retrieves the scheduler pacing the ticks of executions, which holds the overrun metrics of the last one.
+     * @return the tick scheduler.
+     */
+    public TickScheduler getTickScheduler() {
+        return tickScheduler;
     }
 
     /**
@@ -152,16 +214,83 @@ public class RobotSpaceService {
     private void controllerTick(long millis, long simTime, Runnable action) throws RobotExecutionException {
         makeRobotsEnvironmentallyAware();
         programTheSwarm();
+        tickScheduler.start(millis);
+        // The action has to observe every tick, so idle stretches are only coasted through one tick at a time.
+        long maxSkip = action != null ? 1 : Long.MAX_VALUE;
 
         while (!robotController.isSwarmDone()) {
-            robotController.tick(millis, simTime);
+            SimulationTickEvent event = new SimulationTickEvent();
+            event.begin();
+
+            long skipped = timeSkipping ? robotController.skipIdleTicks(millis, simTime, maxSkip) : 0;
+            if (skipped == 0) {
+                robotController.tick(millis, simTime);
+            }
+
+            long callback = action != null ? runAction(action) : 0;
 
-            if (action != null) {
-                action.run();
+            if (event.shouldCommit()) {
+                commitTickEvent(event, skipped, callback);
             }
 
-            waitInstructionTime(millis);
+            tickScheduler.awaitTicks(Math.max(skipped, 1));
+        }
+    }
+
+    /**
+     * Runs the action given to an execution after a tick, timing it if tick metrics are enabled or ticks are
+     * being recorded.
+     * @param action the action to run.
+     * @return how long the action took in nanoseconds, 0 if it wasn't timed.
+     */
+    private long runAction(Runnable action) {
+        TickMetrics metrics = robotController.getTickMetrics();
+        boolean counted = metrics.isEnabled();
+
+        if (!counted && !SimulationTickEvent.isRecorded()) {
+            action.run();
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        action.run();
+        long nanos = System.nanoTime() - start;
+
+        if (counted) {
+            metrics.recordPhase(TickMetrics.Phase.CALLBACK, nanos);
+        }
+        return nanos;
+    }
+
+    /**
+     * Fills in a SimulationTickEvent with the phase timings of the tick that just ran, and commits it.
+     * @param event the event spanning the tick.
+     * @param skipped the amount of idle ticks skipped instead of running the tick.
+     * @param callback how long the action run after the tick took, in nanoseconds.
+     */
+    private void commitTickEvent(SimulationTickEvent event, long skipped, long callback) {
+        event.tick = robotController.getTicks();
+        event.robots = robotController.getSwarm().size();
+        event.skippedTicks = skipped;
+
+        if (skipped == 0) {
+            event.sensorUpdate = robotController.getLastPhaseNanos(TickMetrics.Phase.SENSOR_UPDATE);
+            event.physics = robotController.getLastPhaseNanos(TickMetrics.Phase.PHYSICS);
+            event.processor = robotController.getLastPhaseNanos(TickMetrics.Phase.PROCESSOR);
+            event.publish = robotController.getLastPhaseNanos(TickMetrics.Phase.PUBLISH);
         }
+
+        event.callback = callback;
+        event.commit();
+    }
+
+    /**
+     * Retrieves the metrics of the ticks of executions: phase durations, instructions executed, robots done and
+     * signaling. They are disabled by default, enable them with setEnabled or over JMX after registering them.
+     * @return the tick metrics.
+     */
+    public TickMetrics getTickMetrics() {
+        return robotController.getTickMetrics();
     }
 
     /**
@@ -170,7 +299,7 @@ public class RobotSpaceService {
      * @param simTime the simulated time for the simulation tick.
      */
     public void execute(long millis, long simTime) throws RobotExecutionException {
-        controllerTick(millis, simTime, null);
+        execute(millis, simTime, null);
     }
 
     /**
@@ -181,6 +310,42 @@ public class RobotSpaceService {
      * @param action an action to be run after each tick.
      */
     public void execute(long millis, long simTime, Runnable action) throws RobotExecutionException {
+        execute(millis, simTime, action, new SequentialTickEngine());
+    }
+
+    /**
+     * Executes the compiled robot program with a specified simulation tick rate, a custom action
+     * to be executed after each tick and the engine that runs the swarm's ticks.
+     * @param millis the real time in milliseconds for the processor tick.
+     * @param simTime the simulated time for the simulation tick.
+     * @param action an action to be run after each tick.
+     * @param tickEngine the engine running the swarm's ticks, e.g. a ParallelTickEngine.
+     */
+    public void execute(long millis, long simTime, Runnable action, TickEngine tickEngine) throws RobotExecutionException {
+        robotController.setTickEngine(tickEngine);
         controllerTick(millis, simTime, action);
     }
+
+    /**
+     * Executes the compiled robot program with a specified simulation tick rate, recording the state of the swarm
+     * after each tick into a trajectory file that a TrajectoryReader can seek through, one frame per tick tagged with
+     * the tick count of the swarm.
+     * @param millis the real time in milliseconds for the processor tick.
+     * @param simTime the simulated time for the simulation tick.
+     * @param trajectory the trajectory file to write, replaced if it exists.
+     * @throws IOException if the trajectory file can't be written.
+     */
+    public void executeRecording(long millis, long simTime, Path trajectory) throws RobotExecutionException, IOException {
+        try (TrajectoryWriter writer = TrajectoryWriter.create(trajectory, robotController.getSwarm().size())) {
+            execute(millis, simTime, () -> {
+                try {
+                    writer.writeFrame(robotController.getTicks(), robotController.getSwarm());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package com.github.deputation;
+
+import com.github.deputation.language.Bytecode;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Metrics of the ticks of a simulation: how long every phase of a tick takes, as latency histograms, how many
+ * instructions of every kind the swarm executes, and how many robots are done and signaling.
+ *
+ * Metrics start disabled. While disabled the simulation only checks {@link #isEnabled()} once per tick, reads no
+ * clock and counts nothing, so they can be left in place for production runs and switched on when needed, also
+ * over JMX after {@link #register(String)}. Metrics are recorded by the thread running the simulation and may be
+ * read from any other through {@link #snapshot()} or the MXBean.
+ */
+public class TickMetrics implements TickMetricsMXBean {
+    /**
+     * The phases of a tick.
+     */
+    public enum Phase {
+        /**
+         * Re-indexing the published positions of the signaling robots.
+         */
+        SENSOR_UPDATE,
+        /**
+         * Moving every robot.
+         */
+        PHYSICS,
+        /**
+         * Running the processor of every robot.
+         */
+        PROCESSOR,
+        /**
+         * Publishing the positions and signals of every robot.
+         */
+        PUBLISH,
+        /**
+         * Running the action given to the execution after the tick.
+         */
+        CALLBACK
+    }
+
+    /**
+     * A consistent copy of the metrics.
+     *
+     * @param ticks             The amount of ticks measured.
+     * @param phases            The durations of every phase, in nanoseconds.
+     * @param instructionCounts The amount of instructions executed, by opcode name.
+     * @param robotsDone        The amount of robots done at the end of the last tick measured.
+     * @param signalingRobots   The amount of robots signaling at the end of the last tick measured.
+     */
+    public record Snapshot(long ticks, Map<Phase, LatencyHistogram> phases, Map<String, Long> instructionCounts,
+                           int robotsDone, int signalingRobots) {
+    }
+
+    /**
+     * Whether ticks are being measured.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Durations of every phase, in nanoseconds.
+     */
+    private final Map<Phase, LatencyHistogram> phases;
+
+    /**
+     * Amount of instructions executed, indexed by opcode.
+     */
+    private final long[] instructionCounts;
+
+    /**
+     * Amount of ticks measured.
+     */
+    private long ticks;
+
+    /**
+     * Amount of robots done and signaling at the end of the last tick measured.
+     */
+    private int robotsDone, signalingRobots;
+
+    /**
+     * Constructs disabled TickMetrics.
+     */
+    public TickMetrics() {
+        phases = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+        instructionCounts = new long[Bytecode.OPCODES];
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records how long a phase of a tick took.
+     *
+     * @param phase The phase.
+     * @param nanos The duration, in nanoseconds.
+     */
+    public synchronized void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    /**
+     * Adds up instructions executed by part of the swarm.
+     *
+     * @param counts The amount of instructions executed, indexed by opcode.
+     */
+    public synchronized void recordInstructions(long[] counts) {
+        for (int opcode = 0; opcode < instructionCounts.length; opcode++) {
+            instructionCounts[opcode] += counts[opcode];
+        }
+    }
+
+    /**
+     * Records the end of a tick, with the state of the swarm.
+     *
+     * @param robotsDone      The amount of robots done.
+     * @param signalingRobots The amount of robots signaling.
+     */
+    public synchronized void recordTick(int robotsDone, int signalingRobots) {
+        ticks++;
+        this.robotsDone = robotsDone;
+        this.signalingRobots = signalingRobots;
+    }
+
+    /**
+     * Copies the metrics, consistently with each other.
+     *
+     * @return The snapshot.
+     */
+    public synchronized Snapshot snapshot() {
+        Map<Phase, LatencyHistogram> phasesCopy = new EnumMap<>(Phase.class);
+        phases.forEach((phase, histogram) -> phasesCopy.put(phase, new LatencyHistogram(histogram)));
+
+        return new Snapshot(ticks, Collections.unmodifiableMap(phasesCopy), getInstructionCounts(), robotsDone,
+                signalingRobots);
+    }
+
+    @Override
+    public synchronized long getTicks() {
+        return ticks;
+    }
+
+    @Override
+    public synchronized int getRobotsDone() {
+        return robotsDone;
+    }
+
+    @Override
+    public synchronized int getSignalingRobots() {
+        return signalingRobots;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getInstructionCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int opcode = 0; opcode < instructionCounts.length; opcode++) {
+            counts.put(Bytecode.name(opcode), instructionCounts[opcode]);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanNanos() {
+        return byPhase(LatencyHistogram::getMean);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP50Nanos() {
+        return byPhase(histogram -> histogram.getValueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getPhaseP99Nanos() {
+        return byPhase(histogram -> histogram.getValueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getPhaseMaxNanos() {
+        return byPhase(LatencyHistogram::getMax);
+    }
+
+    /**
+     * Summarises the histogram of every phase, keyed by phase name.
+     */
+    private synchronized <T> Map<String, T> byPhase(Function<LatencyHistogram, T> summary) {
+        Map<String, T> summaries = new LinkedHashMap<>();
+        phases.forEach((phase, histogram) -> summaries.put(phase.name(), summary.apply(histogram)));
+        return Collections.unmodifiableMap(summaries);
+    }
+
+    @Override
+    public synchronized void reset() {
+        phases.values().forEach(LatencyHistogram::reset);
+        Arrays.fill(instructionCounts, 0);
+        ticks = 0;
+        robotsDone = 0;
+        signalingRobots = 0;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, under
+     * com.github.deputation:type=TickMetrics,name=&lt;name&gt;, replacing metrics registered under the same name.
+     *
+     * @param name The name telling these metrics apart from those of other simulations.
+     * @return The name the metrics were registered under.
+     * @throws IllegalStateException if the MBean server rejects the metrics.
+     */
+    public ObjectName register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            ObjectName objectName = new ObjectName("com.github.deputation:type=TickMetrics,name=" + ObjectName.quote(name));
+            try {
+                server.registerMBean(this, objectName);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Couldn't register the tick metrics.", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.deputation;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link TickMetrics}, exposing the metrics of a simulation over JMX, e.g. to JConsole.
+ *
+ * Phase durations are keyed by phase name and given in nanoseconds, instruction counts are keyed by opcode name.
+ */
+public interface TickMetricsMXBean {
+    /**
+     * Checks whether ticks are being measured.
+     *
+     * @return True if metrics are recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops measuring ticks.
+     *
+     * @param enabled True to record metrics.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Retrieves the amount of ticks measured.
+     *
+     * @return The amount of ticks.
+     */
+    long getTicks();
+
+    /**
+     * Retrieves the amount of robots that were done at the end of the last tick measured.
+     *
+     * @return The amount of robots done.
+     */
+    int getRobotsDone();
+
+    /**
+     * Retrieves the amount of robots that were signaling at the end of the last tick measured.
+     *
+     * @return The amount of signaling robots.
+     */
+    int getSignalingRobots();
+
+    /**
+     * Retrieves the amount of instructions executed, by opcode.
+     *
+     * @return The instruction counts.
+     */
+    Map<String, Long> getInstructionCounts();
+
+    /**
+     * Retrieves the mean duration of every phase.
+     *
+     * @return The mean durations.
+     */
+    Map<String, Double> getPhaseMeanNanos();
+
+    /**
+     * Retrieves the median duration of every phase.
+     *
+     * @return The median durations.
+     */
+    Map<String, Long> getPhaseP50Nanos();
+
+    /**
+     * Retrieves the 99th percentile of the duration of every phase.
+     *
+     * @return The 99th percentiles.
+     */
+    Map<String, Long> getPhaseP99Nanos();
+
+    /**
+     * Retrieves the longest duration of every phase.
+     *
+     * @return The longest durations.
+     */
+    Map<String, Long> getPhaseMaxNanos();
+
+    /**
+     * Clears every metric.
+     */
+    void reset();
+}
@@ -0,0 +1,194 @@
+package com.github.deputation;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces the ticks of a simulation in real time.
+ *
+ * A paced scheduler runs ticks at a fixed rate against a monotonic clock: every tick has a deadline one period
+ * after the previous one, so the time spent computing a tick is taken out of the wait instead of adding to it
+ * and the tick rate doesn't drift. A tick that ends past its deadline is an overrun; the scheduler records it and
+ * starts the next period from that moment rather than rushing through the missed ones.
+ *
+ * An unpaced scheduler never waits, running the simulation as fast as possible for headless runs.
+ */
+public class TickScheduler {
+    /**
+     * Whether ticks are paced in real time.
+     */
+    private final boolean paced;
+
+    /**
+     * The monotonic clock, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * Length of a tick, in nanoseconds.
+     */
+    private long period;
+
+    /**
+     * Deadline of the current tick on the clock.
+     */
+    private long deadline;
+
+    /**
+     * Amount of ticks run since the scheduler was started.
+     */
+    private long ticks;
+
+    /**
+     * Amount of ticks that ended past their deadline.
+     */
+    private long overruns;
+
+    /**
+     * Sum and largest of the delays of the overrunning ticks, in nanoseconds.
+     */
+    private long totalOverrun, maxOverrun;
+
+    /**
+     * Constructs a TickScheduler.
+     *
+     * @param paced True to pace ticks in real time, false to run them as fast as possible.
+     * @param clock The monotonic clock, in nanoseconds.
+     */
+    public TickScheduler(boolean paced, LongSupplier clock) {
+        this.paced = paced;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a TickScheduler pacing ticks in real time on System.nanoTime.
+     *
+     * @return The scheduler.
+     */
+    public static TickScheduler paced() {
+        return new TickScheduler(true, System::nanoTime);
+    }
+
+    /**
+     * Creates a TickScheduler running ticks as fast as possible.
+     *
+     * @return The scheduler.
+     */
+    public static TickScheduler unpaced() {
+        return new TickScheduler(false, System::nanoTime);
+    }
+
+    /**
+     * Starts pacing from now, clearing the metrics.
+     *
+     * @param periodMillis The length of a tick, in milliseconds.
+     * @throws IllegalArgumentException if the period is negative.
+     */
+    public void start(long periodMillis) {
+        if (periodMillis < 0) {
+            throw new IllegalArgumentException("The tick period can't be negative.");
+        }
+
+        period = periodMillis * 1_000_000;
+        ticks = 0;
+        overruns = 0;
+        totalOverrun = 0;
+        maxOverrun = 0;
+
+        if (paced) {
+            deadline = clock.getAsLong() + period;
+        }
+    }
+
+    /**
+     * Ends the current tick, waiting for its deadline if it is early and recording an overrun if it is late.
+     */
+    public void awaitNextTick() {
+        awaitTicks(1);
+    }
+
+    /**
+     * Ends several ticks at once, e.g. ones jumped over together, waiting for the deadline of the last one if it
+     * is early and recording an overrun if it is late.
+     *
+     * @param count The amount of ticks, at least 1.
+     * @throws IllegalArgumentException if the amount of ticks isn't positive.
+     */
+    public void awaitTicks(long count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("The amount of ticks must be positive.");
+        }
+
+        ticks += count;
+
+        if (!paced) {
+            return;
+        }
+
+        deadline += (count - 1) * period;
+        long now = clock.getAsLong();
+        long late = now - deadline;
+
+        if (late > 0) {
+            overruns++;
+            totalOverrun += late;
+            maxOverrun = Math.max(maxOverrun, late);
+            deadline = now + period;
+            return;
+        }
+
+        while (now - deadline < 0) {
+            LockSupport.parkNanos(deadline - now);
+            if (Thread.interrupted()) {
+                throw new RuntimeException(new InterruptedException());
+            }
+            now = clock.getAsLong();
+        }
+        deadline += period;
+    }
+
+    /**
+     * Checks whether ticks are paced in real time.
+     *
+     * @return True if the scheduler waits for the deadlines.
+     */
+    public boolean isPaced() {
+        return paced;
+    }
+
+    /**
+     * Retrieves the amount of ticks run since the scheduler was started.
+     *
+     * @return The amount of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Retrieves the amount of ticks that ended past their deadline.
+     *
+     * @return The amount of overruns, always 0 when unpaced.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Retrieves the sum of the delays of the overrunning ticks.
+     *
+     * @return The total delay, in nanoseconds.
+     */
+    public long getTotalOverrunNanos() {
+        return totalOverrun;
+    }
+
+    /**
+     * Retrieves the largest delay of an overrunning tick.
+     *
+     * @return The largest delay, in nanoseconds.
+     */
+    public long getMaxOverrunNanos() {
+        return maxOverrun;
+    }
+}
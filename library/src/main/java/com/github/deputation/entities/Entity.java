@@ -1,54 +1,59 @@
 package com.github.deputation.entities;
 
+import com.github.deputation.labels.Environment;
 import com.github.deputation.labels.Shape;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  The Entity class represents an entity in a robotic system.
- It encapsulates the position, target position, heading, speed,
- and environmental data of the entity.
+ It encapsulates the environmental data of the entity and is a view over
+ a slot of a SwarmState holding its position, target position, heading and speed.
  */
 public class Entity {
     /**
-     * Positional information.
+     * Store holding the entity's kinematic state (position, target position, heading, speed, last speed) and the
+     * state of its random source.
      */
-    protected double x, y;
+    protected final SwarmState state;
     /**
-     * Target position towards which the entity is moving.
+     * Slot of the entity in the store.
      */
-    protected double targetX, targetY;
+    protected final int id;
     /**
-     * Entity's heading in degrees (0 through 360)
+     * The environment the entity is in, usually shared by the whole swarm.
      */
-    protected double heading;
+    private Environment environment;
     /**
-     * Entity's speed.
+     * View over the entity's own random source, kept in the store so that entities ticked on different threads
+     * never share a generator. Null until first asked for.
      */
-    protected double speed;
-    /**
-     * Entity's speed before they stopped last time.
-     */
-    protected double lastSpeed;
+    private RandomGenerator random;
+
     /**
-     * Environmental data regarding the shapes in the environment the entity is in.
+     * Entity constructor, backs the entity with a store of its own and initializes its state to 0.
      */
-    private List<Shape> environmentalData;
+    public Entity() {
+        this(new HeapSwarmState(1), 0);
+    }
 
     /**
-     * Entity constructor, initializes most class fields to 0 or empty lists.
+     * Constructs an Entity viewing a slot of a store shared with other entities.
+     *
+     * @param state The store holding the entity's kinematic state.
+     * @param id    The slot of the entity in the store.
+     * @throws IndexOutOfBoundsException if the slot is not within the store.
      */
-    public Entity() {
-        environmentalData = new ArrayList<>();
-        x = 0;
-        y = 0;
-        targetX = 0;
-        targetY = 0;
-        heading = 0;
-        speed = 0;
+    public Entity(SwarmState state, int id) {
+        Objects.checkIndex(id, state.getCapacity());
+
+        this.state = state;
+        this.id = id;
+        environment = Environment.EMPTY;
     }
 
     /**
@@ -57,33 +62,14 @@ public class Entity {
      * @param millis How many milliseconds to simulate the environment for.
      */
     protected void tick(long millis) {
-        double epsilon = 0.0001;
-
-        if (Math.abs(x - targetX) < epsilon && Math.abs(y - targetY) < epsilon) {
-            // stop
-            if (speed != 0) {
-                lastSpeed = speed;
-            }
-
-            speed = 0;
-            return;
-        }
-
-        updateHeading();
-        updatePosition(millis);
+        state.tick(id, millis);
     }
 
     /**
      * Updates the entity's heading depending on its target position.
      */
     public void updateHeading() {
-        double dx = targetX - x;
-        double dy = targetY - y;
-        heading = Math.toDegrees(Math.atan2(dy, dx));
-
-        if (heading < 0) {
-            heading += 360;
-        }
+        state.updateHeading(id);
     }
 
     /**
@@ -104,28 +90,12 @@ public class Entity {
 
     /**
      * Updates the entity's position based on its speed.
-     * Internally takes 20 small steps to ensure no overshooting and precise movements.
+     * Moves in a single exact step along the heading, arriving if the path passes close enough to the target.
      *
      * @param millis How many milliseconds to simulate time for.
      */
     public void updatePosition(long millis) {
-        double seconds = millis / 1000.0;
-        var its = 20;
-
-        var quantum = (seconds / its);
-        for (int i = 1; i <= its; i++) {
-            double distance = speed * quantum;
-
-            double radianHeading = Math.toRadians(heading);
-            double dx = distance * Math.cos(radianHeading);
-            double dy = distance * Math.sin(radianHeading);
-
-            updateCoordinates(dx, dy);
-
-            if (speed == 0) {
-                return;
-            }
-        }
+        state.updatePosition(id, millis);
     }
 
     /**
@@ -135,42 +105,7 @@ public class Entity {
      * @param dy How many meters per second to change the Y axis coordinates by.
      */
     public void updateCoordinates(double dx, double dy) {
-        var newX = x + dx;
-        var newY = y + dy;
-
-        safeUpdateCoords(newX, newY);
-    }
-
-    /**
-     * Safely updates the entity's position keeping into account targetX and targetY.
-     *
-     * @param newX The newX to set.
-     * @param newY The newY to set.
-     */
-    private void safeUpdateCoords(double newX, double newY) {
-        var dist = calculateDistance(newX, newY, targetX, targetY);
-
-        if (dist < 0.1) {
-            handleAcceptablyClose();
-
-            return;
-        }
-
-        x = newX;
-        y = newY;
-    }
-
-
-    /**
-     * Stops the entity, stores the last speed and wraps the position to targetX and targetY.
-     */
-    private void handleAcceptablyClose() {
-        if (speed != 0) {
-            lastSpeed = speed;
-        }
-        speed = 0;
-        x = targetX;
-        y = targetY;
+        state.updateCoordinates(id, dx, dy);
     }
 
     /**
@@ -182,24 +117,20 @@ public class Entity {
      * @return A double representing the distance in meters.
      */
     public double calculateDistance(double x1, double y1, double x2, double y2) {
-        double deltaX = x2 - x1;
-        double deltaY = y2 - y1;
-        double distance = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-        return distance;
+        return SwarmState.calculateDistance(x1, y1, x2, y2);
     }
 
     /**
      * Randomly places an entity in the space according to environmental data.
-     *
-     * @param random Random class used to generate random numbers.
      */
-    private void placeEntityAccordingToEnvironmentalData(Random random) {
-        int randomIndex = random.nextInt(environmentalData.size());
-        Shape randomShape = environmentalData.get(randomIndex);
-        double[] randomCoords = randomShape.getCoordsInside();
-
-        this.x = randomCoords[0];
-        this.y = randomCoords[1];
+    private void placeEntityAccordingToEnvironmentalData() {
+        List<Shape> shapes = environment.getShapes();
+        RandomGenerator random = getRandom();
+        Shape randomShape = shapes.get(random.nextInt(shapes.size()));
+        double[] randomCoords = randomShape.getCoordsInside(random);
+
+        state.setX(id, randomCoords[0]);
+        state.setY(id, randomCoords[1]);
     }
 
     /**
@@ -208,17 +139,58 @@ public class Entity {
      * @param environmentalData The list of Shape objects representing the environmental data.
      */
     public void setEnvironmentalData(List<Shape> environmentalData) {
-        Random random = new Random();
+        setEnvironment(environmentalData == null ? Environment.EMPTY : new Environment(environmentalData));
+    }
 
-        this.environmentalData = environmentalData;
+    /**
+     * Sets the environment the Entity is in, and randomly places the Entity inside one of its shapes.
+     * The environment is referenced, not copied, so the same instance can be shared by the whole swarm.
+     *
+     * @param environment The environment.
+     */
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
 
-        if (environmentalData != null && !environmentalData.isEmpty()) {
-            placeEntityAccordingToEnvironmentalData(random);
+        if (!environment.isEmpty()) {
+            placeEntityAccordingToEnvironmentalData();
             return;
         }
 
-        x = random.nextFloat(-10, 10);
-        y = random.nextFloat(-10, 10);
+        RandomGenerator random = getRandom();
+        state.setX(id, random.nextFloat(-10, 10));
+        state.setY(id, random.nextFloat(-10, 10));
+    }
+
+    /**
+     * Returns the entity's own random source, which its random placement and moves draw from. Its state lives in
+     * the store, the generator is only a view over it.
+     *
+     * @return The random source.
+     */
+    public RandomGenerator getRandom() {
+        if (random == null) {
+            random = new StateRandom(state, id);
+        }
+        return random;
+    }
+
+    /**
+     * Seeds the entity's own random source from a generator, the way SplittableRandom.split does, e.g. from a
+     * seeded root so that runs are reproducible.
+     *
+     * @param random The generator the seed is drawn from.
+     */
+    public void setRandom(SplittableRandom random) {
+        state.seedRandom(id, Objects.requireNonNull(random));
+    }
+
+    /**
+     * Returns the environment the Entity is in.
+     *
+     * @return The environment.
+     */
+    public Environment getEnvironment() {
+        return environment;
     }
 
     /**
@@ -227,7 +199,7 @@ public class Entity {
      * @return The x-coordinate.
      */
     public double getX() {
-        return x;
+        return state.getX(id);
     }
 
     /**
@@ -236,7 +208,7 @@ public class Entity {
      * @param x The new x-coordinate.
      */
     public void setX(double x) {
-        this.x = x;
+        state.setX(id, x);
     }
 
     /**
@@ -245,7 +217,7 @@ public class Entity {
      * @return The y-coordinate.
      */
     public double getY() {
-        return y;
+        return state.getY(id);
     }
 
     /**
@@ -254,7 +226,7 @@ public class Entity {
      * @return The target y-coordinate.
      */
     public double getTargetY() {
-        return targetY;
+        return state.getTargetY(id);
     }
 
     /**
@@ -263,7 +235,7 @@ public class Entity {
      * @return The target x-coordinate.
      */
     public double getTargetX() {
-        return targetX;
+        return state.getTargetX(id);
     }
 
     /**
@@ -272,7 +244,7 @@ public class Entity {
      * @return The heading.
      */
     public double getHeading() {
-        return heading;
+        return state.getHeading(id);
     }
 
     /**
@@ -281,7 +253,7 @@ public class Entity {
      * @return The speed.
      */
     public double getSpeed() {
-        return speed;
+        return state.getSpeed(id);
     }
 
     /**
@@ -290,7 +262,25 @@ public class Entity {
      * @param y The new y-coordinate.
      */
     public void setY(double y) {
-        this.y = y;
+        state.setY(id, y);
+    }
+
+    /**
+     * Returns the store holding the Entity's kinematic state.
+     *
+     * @return The store.
+     */
+    public SwarmState getSwarmState() {
+        return state;
+    }
+
+    /**
+     * Returns the slot of the Entity in its store.
+     *
+     * @return The slot index.
+     */
+    public int getId() {
+        return id;
     }
 
     /**
@@ -299,12 +289,34 @@ public class Entity {
      * @return An Optional containing the environmental label if found, or an empty Optional if not found.
      */
     public Optional<String> getEnvironmentalLabel() {
-        for (var s : environmentalData) {
-            if (s.isInside(x, y)) {
-                return Optional.of(s.getLabel());
-            }
+        return environment.getLabel(getX(), getY());
+    }
+
+    /**
+     * Checks whether the environmental label of the Entity's position is the given one, without allocating.
+     *
+     * @param label The label to check against.
+     * @return True if the Entity is in a shape with the given label, and no other shape comes before it.
+     */
+    public boolean isInEnvironmentalLabel(String label) {
+        return environment.hasLabel(label, getX(), getY());
+    }
+
+    /**
+     * Random source drawing from the random state of an entity in a store.
+     */
+    private static final class StateRandom implements RandomGenerator {
+        private final SwarmState state;
+        private final int id;
+
+        StateRandom(SwarmState state, int id) {
+            this.state = state;
+            this.id = id;
         }
 
-        return Optional.empty();
+        @Override
+        public long nextLong() {
+            return state.nextRandomLong(id);
+        }
     }
 }
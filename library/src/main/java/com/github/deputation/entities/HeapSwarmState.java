@@ -0,0 +1,365 @@
+package com.github.deputation.entities;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * SwarmState keeping every column in a primitive array on the Java heap.
+ */
+public class HeapSwarmState extends SwarmState {
+    /**
+     * Positional information.
+     */
+    private final double[] x, y;
+
+    /**
+     * Target position towards which every entity is moving.
+     */
+    private final double[] targetX, targetY;
+
+    /**
+     * Entities' heading as a unit vector.
+     */
+    private final double[] directionX, directionY;
+
+    /**
+     * Entities' speed.
+     */
+    private final double[] speed;
+
+    /**
+     * Entities' speed before they stopped last time.
+     */
+    private final double[] lastSpeed;
+
+    /**
+     * Position other entities observe during a tick.
+     */
+    private final double[] publishedX, publishedY;
+
+    /**
+     * Milliseconds every robot still has to keep executing CONTINUE for.
+     */
+    private final long[] continuingMillis;
+
+    /**
+     * Whether every robot executed the END instruction.
+     */
+    private final boolean[] done;
+
+    /**
+     * State and increment of every entity's random source.
+     */
+    private final long[] randomSeed, randomGamma;
+
+    /**
+     * Index of the next opcode every robot executes.
+     */
+    private final int[] programCounter;
+
+    /**
+     * Number of REPEAT loops every robot is in.
+     */
+    private final int[] repeatDepth;
+
+    /**
+     * Iterations left of the REPEAT loops of every robot, {@link #getRepeatLevels()} consecutive counters a robot.
+     */
+    private int[] repeatCounters;
+
+    /**
+     * Whether every robot has a last move.
+     */
+    private final boolean[] hasLastMove;
+
+    /**
+     * Relative coordinates and speed of the last move of every robot.
+     */
+    private final double[] lastMoveX, lastMoveY, lastMoveSpeed;
+
+    /**
+     * First word of the signal bitsets of every robot, and of the ones other robots observe.
+     */
+    private final long[] signals, publishedSignals;
+
+    /**
+     * Whether the signals of every robot changed since they were last published.
+     */
+    private final boolean[] signalsChanged;
+
+    /**
+     * Constructs a HeapSwarmState holding the given number of entities, all at rest in the origin.
+     *
+     * @param capacity The number of entities.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public HeapSwarmState(int capacity) {
+        super(capacity);
+
+        x = new double[capacity];
+        y = new double[capacity];
+        targetX = new double[capacity];
+        targetY = new double[capacity];
+        directionX = new double[capacity];
+        directionY = new double[capacity];
+        Arrays.fill(directionX, 1);
+        speed = new double[capacity];
+        lastSpeed = new double[capacity];
+        publishedX = new double[capacity];
+        publishedY = new double[capacity];
+        continuingMillis = new long[capacity];
+        done = new boolean[capacity];
+        randomSeed = new long[capacity];
+        randomGamma = new long[capacity];
+        programCounter = new int[capacity];
+        repeatDepth = new int[capacity];
+        repeatCounters = new int[0];
+        hasLastMove = new boolean[capacity];
+        lastMoveX = new double[capacity];
+        lastMoveY = new double[capacity];
+        lastMoveSpeed = new double[capacity];
+        signals = new long[capacity];
+        publishedSignals = new long[capacity];
+        signalsChanged = new boolean[capacity];
+
+        seedRandoms(new SplittableRandom());
+    }
+
+    @Override
+    protected void resizeRepeatCounters(int oldLevels, int newLevels) {
+        int[] resized = new int[Math.multiplyExact(getCapacity(), newLevels)];
+        for (int id = 0; id < getCapacity(); id++) {
+            System.arraycopy(repeatCounters, id * oldLevels, resized, id * newLevels, oldLevels);
+        }
+        repeatCounters = resized;
+    }
+
+    @Override
+    public void publishPositions(int from, int to) {
+        System.arraycopy(x, from, publishedX, from, to - from);
+        System.arraycopy(y, from, publishedY, from, to - from);
+    }
+
+    @Override
+    public double getX(int id) {
+        return x[id];
+    }
+
+    @Override
+    public void setX(int id, double value) {
+        x[id] = value;
+    }
+
+    @Override
+    public double getY(int id) {
+        return y[id];
+    }
+
+    @Override
+    public void setY(int id, double value) {
+        y[id] = value;
+    }
+
+    @Override
+    public double getTargetX(int id) {
+        return targetX[id];
+    }
+
+    @Override
+    public void setTargetX(int id, double value) {
+        targetX[id] = value;
+    }
+
+    @Override
+    public double getTargetY(int id) {
+        return targetY[id];
+    }
+
+    @Override
+    public void setTargetY(int id, double value) {
+        targetY[id] = value;
+    }
+
+    @Override
+    public double getDirectionX(int id) {
+        return directionX[id];
+    }
+
+    @Override
+    public void setDirectionX(int id, double value) {
+        directionX[id] = value;
+    }
+
+    @Override
+    public double getDirectionY(int id) {
+        return directionY[id];
+    }
+
+    @Override
+    public void setDirectionY(int id, double value) {
+        directionY[id] = value;
+    }
+
+    @Override
+    public double getSpeed(int id) {
+        return speed[id];
+    }
+
+    @Override
+    public void setSpeed(int id, double value) {
+        speed[id] = value;
+    }
+
+    @Override
+    public double getLastSpeed(int id) {
+        return lastSpeed[id];
+    }
+
+    @Override
+    public void setLastSpeed(int id, double value) {
+        lastSpeed[id] = value;
+    }
+
+    @Override
+    public double getPublishedX(int id) {
+        return publishedX[id];
+    }
+
+    @Override
+    public double getPublishedY(int id) {
+        return publishedY[id];
+    }
+
+    @Override
+    public long getContinuingMillis(int id) {
+        return continuingMillis[id];
+    }
+
+    @Override
+    public void setContinuingMillis(int id, long value) {
+        continuingMillis[id] = value;
+    }
+
+    @Override
+    public boolean isDone(int id) {
+        return done[id];
+    }
+
+    @Override
+    public void setDone(int id, boolean value) {
+        done[id] = value;
+    }
+
+    @Override
+    public long getRandomSeed(int id) {
+        return randomSeed[id];
+    }
+
+    @Override
+    public void setRandomSeed(int id, long value) {
+        randomSeed[id] = value;
+    }
+
+    @Override
+    public long getRandomGamma(int id) {
+        return randomGamma[id];
+    }
+
+    @Override
+    public void setRandomGamma(int id, long value) {
+        randomGamma[id] = value;
+    }
+
+    @Override
+    public int getProgramCounter(int id) {
+        return programCounter[id];
+    }
+
+    @Override
+    public void setProgramCounter(int id, int value) {
+        programCounter[id] = value;
+    }
+
+    @Override
+    public int getRepeatDepth(int id) {
+        return repeatDepth[id];
+    }
+
+    @Override
+    public void setRepeatDepth(int id, int value) {
+        repeatDepth[id] = value;
+    }
+
+    @Override
+    public int getRepeatCounter(int id, int level) {
+        return repeatCounters[id * getRepeatLevels() + level];
+    }
+
+    @Override
+    public void setRepeatCounter(int id, int level, int value) {
+        repeatCounters[id * getRepeatLevels() + level] = value;
+    }
+
+    @Override
+    public boolean hasLastMove(int id) {
+        return hasLastMove[id];
+    }
+
+    @Override
+    public void clearLastMove(int id) {
+        hasLastMove[id] = false;
+    }
+
+    @Override
+    public void setLastMove(int id, double x, double y, double speed) {
+        hasLastMove[id] = true;
+        lastMoveX[id] = x;
+        lastMoveY[id] = y;
+        lastMoveSpeed[id] = speed;
+    }
+
+    @Override
+    public double getLastMoveX(int id) {
+        return lastMoveX[id];
+    }
+
+    @Override
+    public double getLastMoveY(int id) {
+        return lastMoveY[id];
+    }
+
+    @Override
+    public double getLastMoveSpeed(int id) {
+        return lastMoveSpeed[id];
+    }
+
+    @Override
+    public long getSignals(int id) {
+        return signals[id];
+    }
+
+    @Override
+    public void setSignals(int id, long value) {
+        signals[id] = value;
+    }
+
+    @Override
+    public long getPublishedSignals(int id) {
+        return publishedSignals[id];
+    }
+
+    @Override
+    public void setPublishedSignals(int id, long value) {
+        publishedSignals[id] = value;
+    }
+
+    @Override
+    public boolean isSignalsChanged(int id) {
+        return signalsChanged[id];
+    }
+
+    @Override
+    public void setSignalsChanged(int id, boolean value) {
+        signalsChanged[id] = value;
+    }
+}
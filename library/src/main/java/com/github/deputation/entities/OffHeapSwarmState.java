@@ -0,0 +1,416 @@
+package com.github.deputation.entities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * SwarmState keeping every column in native memory, outside the Java heap.
+ *
+ * Every column is a direct buffer in native byte order with a fixed layout: the value of entity i lives at
+ * byte offset i * 8 of its column, i * 4 of the int columns and i of the one-byte flag columns, and REPEAT counter
+ * l of robot i at int offset i * {@link #getRepeatLevels()} + l. Only a handful of buffer objects live on the
+ * heap whatever the size of the swarm, so the columns add nothing to GC work and the state may exceed the
+ * configured heap. Direct memory is capped by -XX:MaxDirectMemorySize, which defaults to the maximum heap size,
+ * so raise it when the swarm state is larger than the heap.
+ *
+ * What stays on the heap is a small Robot view per robot, holding references to the program, environment and
+ * signal index shared by the swarm, and the view over its random source once asked for: under 100 bytes a robot.
+ * The signal index keeps its entries on the heap too, so signaling robots cost some more, as do robots signaling
+ * labels interned after the first 64, whose signal words past the first live on the heap.
+ *
+ * The memory is released once the store is no longer reachable.
+ */
+public class OffHeapSwarmState extends SwarmState {
+    /**
+     * Largest number of entities a single column can address.
+     */
+    public static final int MAX_CAPACITY = Integer.MAX_VALUE / Double.BYTES;
+
+    /**
+     * Positional information.
+     */
+    private final DoubleBuffer x, y;
+
+    /**
+     * Target position towards which every entity is moving.
+     */
+    private final DoubleBuffer targetX, targetY;
+
+    /**
+     * Entities' heading as a unit vector.
+     */
+    private final DoubleBuffer directionX, directionY;
+
+    /**
+     * Entities' speed.
+     */
+    private final DoubleBuffer speed;
+
+    /**
+     * Entities' speed before they stopped last time.
+     */
+    private final DoubleBuffer lastSpeed;
+
+    /**
+     * Position other entities observe during a tick.
+     */
+    private final DoubleBuffer publishedX, publishedY;
+
+    /**
+     * Milliseconds every robot still has to keep executing CONTINUE for.
+     */
+    private final LongBuffer continuingMillis;
+
+    /**
+     * Whether every robot executed the END instruction, 1 if it did and 0 if it did not.
+     */
+    private final ByteBuffer done;
+
+    /**
+     * State and increment of every entity's random source.
+     */
+    private final LongBuffer randomSeed, randomGamma;
+
+    /**
+     * Index of the next opcode every robot executes.
+     */
+    private final IntBuffer programCounter;
+
+    /**
+     * Number of REPEAT loops every robot is in.
+     */
+    private final IntBuffer repeatDepth;
+
+    /**
+     * Iterations left of the REPEAT loops of every robot, {@link #getRepeatLevels()} consecutive counters a robot.
+     */
+    private IntBuffer repeatCounters;
+
+    /**
+     * Whether every robot has a last move, 1 if it has and 0 if it has not.
+     */
+    private final ByteBuffer hasLastMove;
+
+    /**
+     * Relative coordinates and speed of the last move of every robot.
+     */
+    private final DoubleBuffer lastMoveX, lastMoveY, lastMoveSpeed;
+
+    /**
+     * First word of the signal bitsets of every robot, and of the ones other robots observe.
+     */
+    private final LongBuffer signals, publishedSignals;
+
+    /**
+     * Whether the signals of every robot changed since they were last published, 1 if they did and 0 if not.
+     */
+    private final ByteBuffer signalsChanged;
+
+    /**
+     * Constructs an OffHeapSwarmState holding the given number of entities, all at rest in the origin.
+     *
+     * @param capacity The number of entities.
+     * @throws IllegalArgumentException if the capacity is negative or larger than {@link #MAX_CAPACITY}.
+     * @throws OutOfMemoryError if there is not enough direct memory for the columns.
+     */
+    public OffHeapSwarmState(int capacity) {
+        super(capacity);
+
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity can't be larger than " + MAX_CAPACITY + ".");
+        }
+
+        x = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        y = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        targetX = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        targetY = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        directionX = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        directionY = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        speed = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        lastSpeed = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        publishedX = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        publishedY = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        continuingMillis = allocate(capacity, Long.BYTES).asLongBuffer();
+        done = allocate(capacity, Byte.BYTES);
+        randomSeed = allocate(capacity, Long.BYTES).asLongBuffer();
+        randomGamma = allocate(capacity, Long.BYTES).asLongBuffer();
+        programCounter = allocate(capacity, Integer.BYTES).asIntBuffer();
+        repeatDepth = allocate(capacity, Integer.BYTES).asIntBuffer();
+        repeatCounters = allocate(0, Integer.BYTES).asIntBuffer();
+        hasLastMove = allocate(capacity, Byte.BYTES);
+        lastMoveX = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        lastMoveY = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        lastMoveSpeed = allocate(capacity, Double.BYTES).asDoubleBuffer();
+        signals = allocate(capacity, Long.BYTES).asLongBuffer();
+        publishedSignals = allocate(capacity, Long.BYTES).asLongBuffer();
+        signalsChanged = allocate(capacity, Byte.BYTES);
+
+        for (int id = 0; id < capacity; id++) {
+            directionX.put(id, 1);
+        }
+        seedRandoms(new SplittableRandom());
+    }
+
+    /**
+     * Reallocates the REPEAT counters in native memory for a new number of counters per robot.
+     *
+     * @throws IllegalArgumentException if the counters of the whole swarm don't fit in a single column.
+     * @throws OutOfMemoryError if there is not enough direct memory for the counters.
+     */
+    @Override
+    protected void resizeRepeatCounters(int oldLevels, int newLevels) {
+        if ((long) getCapacity() * newLevels > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalArgumentException("REPEAT nesting too deep for " + getCapacity() + " robots.");
+        }
+
+        IntBuffer resized = allocate(getCapacity() * newLevels, Integer.BYTES).asIntBuffer();
+        for (int id = 0; id < getCapacity(); id++) {
+            resized.put(id * newLevels, repeatCounters, id * oldLevels, oldLevels);
+        }
+        repeatCounters = resized;
+    }
+
+    /**
+     * Allocates a zeroed column in native memory.
+     *
+     * @param capacity The number of entities.
+     * @param bytes    The size of a single value.
+     * @return The column, in native byte order.
+     */
+    private static ByteBuffer allocate(int capacity, int bytes) {
+        return ByteBuffer.allocateDirect(capacity * bytes).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public void publishPositions(int from, int to) {
+        publishedX.put(from, x, from, to - from);
+        publishedY.put(from, y, from, to - from);
+    }
+
+    @Override
+    public double getX(int id) {
+        return x.get(id);
+    }
+
+    @Override
+    public void setX(int id, double value) {
+        x.put(id, value);
+    }
+
+    @Override
+    public double getY(int id) {
+        return y.get(id);
+    }
+
+    @Override
+    public void setY(int id, double value) {
+        y.put(id, value);
+    }
+
+    @Override
+    public double getTargetX(int id) {
+        return targetX.get(id);
+    }
+
+    @Override
+    public void setTargetX(int id, double value) {
+        targetX.put(id, value);
+    }
+
+    @Override
+    public double getTargetY(int id) {
+        return targetY.get(id);
+    }
+
+    @Override
+    public void setTargetY(int id, double value) {
+        targetY.put(id, value);
+    }
+
+    @Override
+    public double getDirectionX(int id) {
+        return directionX.get(id);
+    }
+
+    @Override
+    public void setDirectionX(int id, double value) {
+        directionX.put(id, value);
+    }
+
+    @Override
+    public double getDirectionY(int id) {
+        return directionY.get(id);
+    }
+
+    @Override
+    public void setDirectionY(int id, double value) {
+        directionY.put(id, value);
+    }
+
+    @Override
+    public double getSpeed(int id) {
+        return speed.get(id);
+    }
+
+    @Override
+    public void setSpeed(int id, double value) {
+        speed.put(id, value);
+    }
+
+    @Override
+    public double getLastSpeed(int id) {
+        return lastSpeed.get(id);
+    }
+
+    @Override
+    public void setLastSpeed(int id, double value) {
+        lastSpeed.put(id, value);
+    }
+
+    @Override
+    public double getPublishedX(int id) {
+        return publishedX.get(id);
+    }
+
+    @Override
+    public double getPublishedY(int id) {
+        return publishedY.get(id);
+    }
+
+    @Override
+    public long getContinuingMillis(int id) {
+        return continuingMillis.get(id);
+    }
+
+    @Override
+    public void setContinuingMillis(int id, long value) {
+        continuingMillis.put(id, value);
+    }
+
+    @Override
+    public boolean isDone(int id) {
+        return done.get(id) != 0;
+    }
+
+    @Override
+    public void setDone(int id, boolean value) {
+        done.put(id, (byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public long getRandomSeed(int id) {
+        return randomSeed.get(id);
+    }
+
+    @Override
+    public void setRandomSeed(int id, long value) {
+        randomSeed.put(id, value);
+    }
+
+    @Override
+    public long getRandomGamma(int id) {
+        return randomGamma.get(id);
+    }
+
+    @Override
+    public void setRandomGamma(int id, long value) {
+        randomGamma.put(id, value);
+    }
+
+    @Override
+    public int getProgramCounter(int id) {
+        return programCounter.get(id);
+    }
+
+    @Override
+    public void setProgramCounter(int id, int value) {
+        programCounter.put(id, value);
+    }
+
+    @Override
+    public int getRepeatDepth(int id) {
+        return repeatDepth.get(id);
+    }
+
+    @Override
+    public void setRepeatDepth(int id, int value) {
+        repeatDepth.put(id, value);
+    }
+
+    @Override
+    public int getRepeatCounter(int id, int level) {
+        return repeatCounters.get(id * getRepeatLevels() + level);
+    }
+
+    @Override
+    public void setRepeatCounter(int id, int level, int value) {
+        repeatCounters.put(id * getRepeatLevels() + level, value);
+    }
+
+    @Override
+    public boolean hasLastMove(int id) {
+        return hasLastMove.get(id) != 0;
+    }
+
+    @Override
+    public void clearLastMove(int id) {
+        hasLastMove.put(id, (byte) 0);
+    }
+
+    @Override
+    public void setLastMove(int id, double x, double y, double speed) {
+        hasLastMove.put(id, (byte) 1);
+        lastMoveX.put(id, x);
+        lastMoveY.put(id, y);
+        lastMoveSpeed.put(id, speed);
+    }
+
+    @Override
+    public double getLastMoveX(int id) {
+        return lastMoveX.get(id);
+    }
+
+    @Override
+    public double getLastMoveY(int id) {
+        return lastMoveY.get(id);
+    }
+
+    @Override
+    public double getLastMoveSpeed(int id) {
+        return lastMoveSpeed.get(id);
+    }
+
+    @Override
+    public long getSignals(int id) {
+        return signals.get(id);
+    }
+
+    @Override
+    public void setSignals(int id, long value) {
+        signals.put(id, value);
+    }
+
+    @Override
+    public long getPublishedSignals(int id) {
+        return publishedSignals.get(id);
+    }
+
+    @Override
+    public void setPublishedSignals(int id, long value) {
+        publishedSignals.put(id, value);
+    }
+
+    @Override
+    public boolean isSignalsChanged(int id) {
+        return signalsChanged.get(id) != 0;
+    }
+
+    @Override
+    public void setSignalsChanged(int id, boolean value) {
+        signalsChanged.put(id, (byte) (value ? 1 : 0));
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.deputation.entities;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits every tick phase across a ForkJoinPool.
+ *
+ * The index range is recursively halved until slices are at most {@code granularity} robots long,
+ * and the slices are then processed by the pool's workers.
+ */
+public class ParallelTickEngine implements TickEngine {
+    /**
+     * Default amount of robots processed by a single task before it stops splitting.
+     */
+    public static final int DEFAULT_GRANULARITY = 1024;
+
+    /**
+     * Pool the slices are executed on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Maximum amount of robots a single leaf task processes.
+     */
+    private final int granularity;
+
+    /**
+     * Constructs a ParallelTickEngine running on the common ForkJoinPool.
+     */
+    public ParallelTickEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ParallelTickEngine running on the given pool with the default granularity.
+     *
+     * @param pool the pool to run the tick phases on.
+     */
+    public ParallelTickEngine(ForkJoinPool pool) {
+        this(pool, DEFAULT_GRANULARITY);
+    }
+
+    /**
+     * Constructs a ParallelTickEngine running on the given pool.
+     *
+     * @param pool        the pool to run the tick phases on.
+     * @param granularity the maximum amount of robots processed by a single task.
+     * @throws IllegalArgumentException if the granularity is not positive.
+     */
+    public ParallelTickEngine(ForkJoinPool pool, int granularity) {
+        if (granularity <= 0) {
+            throw new IllegalArgumentException("Granularity must be positive.");
+        }
+
+        this.pool = pool;
+        this.granularity = granularity;
+    }
+
+    /**
+     * Runs the task over the range by splitting it across the pool, waiting for every slice to complete.
+     *
+     * @param size the number of indices to process.
+     * @param task the task to run over each slice.
+     */
+    @Override
+    public void forEachRange(int size, RangeTask task) {
+        if (size <= granularity) {
+            task.run(0, size);
+            return;
+        }
+
+        pool.invoke(new RangeAction(task, 0, size, granularity));
+    }
+
+    /**
+     * Recursive action halving its range until it is small enough to be processed directly.
+     */
+    private static class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int granularity;
+
+        RangeAction(RangeTask task, int from, int to, int granularity) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.granularity = granularity;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= granularity) {
+                task.run(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(task, from, middle, granularity),
+                    new RangeAction(task, middle, to, granularity));
+        }
+    }
+}
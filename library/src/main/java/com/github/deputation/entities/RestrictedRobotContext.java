@@ -2,6 +2,9 @@ package com.github.deputation.entities;
 
 import com.github.deputation.RobotExecutionException;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 public interface RestrictedRobotContext {
 
     /**
@@ -12,6 +15,26 @@ public interface RestrictedRobotContext {
      */
     void Move(double[] coordinates, double speed);
 
+    /**
+     * Moves the robot to the specified coordinates with the given speed, without packing them in an array.
+     *
+     * @param x     The x-coordinate to move the robot to.
+     * @param y     The y-coordinate to move the robot to.
+     * @param speed The speed at which the robot should move.
+     */
+    default void Move(double x, double y, double speed) {
+        Move(new double[]{x, y}, speed);
+    }
+
+    /**
+     * Retrieves the random source of the robot, which instructions draw their random numbers from.
+     *
+     * @return The random source, by default the current thread's.
+     */
+    default RandomGenerator getRandom() {
+        return ThreadLocalRandom.current();
+    }
+
     /**
      * Sends a signal with the specified label.
      *
@@ -1,61 +1,79 @@
 package com.github.deputation.entities;
 
 import com.github.deputation.RobotExecutionException;
+import com.github.deputation.events.InstructionExecutionEvent;
 import com.github.deputation.instructions.*;
-import com.github.deputation.language.LoopBodyStack;
+import com.github.deputation.language.Bytecode;
+import com.github.deputation.language.CompiledProgram;
 import com.github.deputation.language.RobotContext;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.random.RandomGenerator;
 
 public class Robot extends Entity implements RobotContext {
+    /**
+     * Cell size of the signal grids built when the signaling robots are input directly.
+     */
+    static final double DEFAULT_SENSOR_CELL_SIZE = 1.0;
 
     /**
-     * Represents a set of signals associated with the robot.
+     * Signal words of robots with no signal past the first word.
      */
-    private Set<String> signals;
+    private static final long[] NO_WORDS = new long[0];
 
     /**
-     * Represents a list of robots that are signaling to the current robot.
+     * Words of the robot's signal bitset past the first, which the store holds, for labels interned after the
+     * first 64. Shared and empty until the robot signals one of them.
      */
-    private List<Robot> signalingRobots;
+    private long[] extraSignals;
 
     /**
-     * Represents the program instructions for the robot.
+     * Index of the robots signaling each label, shared by the whole swarm and queried by FOLLOW.
+     * Null until the robot joins one or first needs one of its own.
      */
-    private List<RobotInstruction> program;
+    private SignalIndex signalIndex;
 
     /**
-     * Represents a stack for tracking loop bodies during program execution.
+     * Reusable accumulator for FOLLOW neighbour queries, null until the robot first executes FOLLOW.
      */
-    private final LoopBodyStack bodyTracker;
+    private FollowQuery followQuery;
 
     /**
-     * Indicates whether the end instruction has been executed for the robot.
+     * The robot's program, shared with the rest of the swarm.
      */
-    private boolean endInstructionExecuted;
+    private CompiledProgram program;
 
     /**
-     * Represents the duration in milliseconds for continuing the execution of the robot.
+     * Words of the bitset of the signals other robots observe past the first, which the store holds.
      */
-    private long continuingMillis;
+    private long[] extraPublishedSignals;
     /**
-     * An optional used to track the lastMove, so that the robot may keep moving and moves can be implemented
-     * in both a continuous and blocking manner.
-     * */
-    private Optional<MoveInstruction> lastMove;
+     * Opcode that took up the last processor tick, -1 if the robot was idle.
+     */
+    private int executedOpcode;
     /**
-     * Constructs a Robot object.
+     * Constructs a Robot object backed by a store of its own.
      * */
     public Robot() {
-        super();
+        this(new HeapSwarmState(1), 0);
+    }
 
-        signals = new HashSet<>();
-        signalingRobots = new ArrayList<>();
-        program = new ArrayList<>();
-        endInstructionExecuted = false;
-        bodyTracker = new LoopBodyStack();
-        lastMove = Optional.empty();
+    /**
+     * Constructs a Robot object viewing a slot of a store shared with the rest of the swarm. The store holds
+     * the robot's processor state too (program counter, REPEAT counters, last move, signals), so that the robot
+     * itself is little more than references to what it shares with the swarm.
+     *
+     * @param state The store holding the robot's kinematic and processor state.
+     * @param id    The slot of the robot in the store.
+     */
+    public Robot(SwarmState state, int id) {
+        super(state, id);
+
+        extraSignals = NO_WORDS;
+        extraPublishedSignals = NO_WORDS;
+        program = CompiledProgram.EMPTY;
+        executedOpcode = -1;
+        publishState();
     }
 
     /**
@@ -64,19 +82,172 @@ public class Robot extends Entity implements RobotContext {
      * @param robots A list of robots with signals.
      */
     public void inputSignalingRobots(List<Robot> robots) {
-        robots = robots.stream().filter(robot -> !robot.equals(this)).collect(Collectors.toList());
+        SignalIndex index = new SignalIndex(DEFAULT_SENSOR_CELL_SIZE);
+
+        robots.stream()
+                .filter(robot -> robot != this)
+                .forEach(robot -> robot.getSignals().forEach(label -> index.add(label, robot)));
+        index.refresh();
 
-        signalingRobots.clear();
-        signalingRobots.addAll(robots);
+        joinSignalIndex(index);
+    }
+
+    /**
+     * Makes the robot publish its signals into, and look for signaling robots in, the given index,
+     * usually the one shared by the whole swarm.
+     *
+     * @param index The signal index to join.
+     */
+    void joinSignalIndex(SignalIndex index) {
+        signalIndex = index;
+    }
+
+    /**
+     * Returns the signal index the robot joined, giving it one of its own if it never joined any.
+     */
+    private SignalIndex signalIndex() {
+        if (signalIndex == null) {
+            signalIndex = new SignalIndex(DEFAULT_SENSOR_CELL_SIZE);
+        }
+        return signalIndex;
     }
 
     /**
      * This function returns all signals the robot is currently signaling.
      *
-     * @return A set of strings representing the signals.
+     * @return An unmodifiable snapshot of the signals.
      */
     public Set<String> getSignals() {
-        return signals;
+        return labelsOf(state.getSignals(id), extraSignals);
+    }
+
+    /**
+     * This function returns the signals other robots currently observe on this robot,
+     * as of the last time its state was published.
+     *
+     * @return An unmodifiable snapshot of the published signals.
+     */
+    public Set<String> getPublishedSignals() {
+        return labelsOf(state.getPublishedSignals(id), extraPublishedSignals);
+    }
+
+    /**
+     * Returns a word of the bitset of the signals other robots currently observe on this robot, bit i of word w
+     * standing for the label with id 64 * w + i (see {@link #signalLabel(int)}).
+     *
+     * @param word The index of the word.
+     * @return The word, 0 past the end of the bitset.
+     */
+    public long getPublishedSignalWord(int word) {
+        if (word == 0) {
+            return state.getPublishedSignals(id);
+        }
+        return word <= extraPublishedSignals.length ? extraPublishedSignals[word - 1] : 0;
+    }
+
+    /**
+     * Returns the amount of words that hold every signal label seen so far, for any robot.
+     *
+     * @return The amount of words of the signal bitsets.
+     */
+    public static int signalWords() {
+        return (SignalLabels.count() + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Returns the signal label of an id, as found in the signal bitsets.
+     *
+     * @param id The id of the label.
+     * @return The label.
+     */
+    public static String signalLabel(int id) {
+        return SignalLabels.label(id);
+    }
+
+    /**
+     * Returns the amount of signal labels seen so far, for any robot.
+     *
+     * @return The amount of labels, one past the largest id.
+     */
+    public static int signalLabels() {
+        return SignalLabels.count();
+    }
+
+    /**
+     * Turns a bitset of label ids into the set of labels.
+     *
+     * @param first The first word of the bitset.
+     * @param rest  The words past the first.
+     * @return An unmodifiable set of the labels.
+     */
+    private static Set<String> labelsOf(long first, long[] rest) {
+        Set<String> labels = new HashSet<>();
+
+        for (int word = 0; word <= rest.length; word++) {
+            for (long remaining = word == 0 ? first : rest[word - 1]; remaining != 0; remaining &= remaining - 1) {
+                labels.add(SignalLabels.label(word * Long.SIZE + Long.numberOfTrailingZeros(remaining)));
+            }
+        }
+
+        return Collections.unmodifiableSet(labels);
+    }
+
+    /**
+     * Returns a word of the robot's signal bitset.
+     */
+    private long signalWord(int word) {
+        if (word == 0) {
+            return state.getSignals(id);
+        }
+        return word <= extraSignals.length ? extraSignals[word - 1] : 0;
+    }
+
+    /**
+     * Sets a word of the robot's signal bitset, growing the words past the first if needed.
+     */
+    private void setSignalWord(int word, long value) {
+        if (word == 0) {
+            state.setSignals(id, value);
+            return;
+        }
+
+        if (word > extraSignals.length) {
+            extraSignals = Arrays.copyOf(extraSignals, word);
+        }
+        extraSignals[word - 1] = value;
+    }
+
+    /**
+     * Sets a word of the bitset of the signals other robots observe, growing the words past the first if needed.
+     */
+    private void setPublishedSignalWord(int word, long value) {
+        if (word == 0) {
+            state.setPublishedSignals(id, value);
+            return;
+        }
+
+        if (word > extraPublishedSignals.length) {
+            extraPublishedSignals = Arrays.copyOf(extraPublishedSignals, word);
+        }
+        extraPublishedSignals[word - 1] = value;
+    }
+
+    /**
+     * Returns the x-coordinate other robots currently observe on this robot.
+     *
+     * @return The published x-coordinate.
+     */
+    public double getPublishedX() {
+        return state.getPublishedX(id);
+    }
+
+    /**
+     * Returns the y-coordinate other robots currently observe on this robot.
+     *
+     * @return The published y-coordinate.
+     */
+    public double getPublishedY() {
+        return state.getPublishedY(id);
     }
 
     /**
@@ -85,7 +256,9 @@ public class Robot extends Entity implements RobotContext {
      * @return A list of Robots that are signaling to the current robot.
      */
     public List<Robot> getSignalingRobots() {
-        return signalingRobots;
+        List<Robot> robots = signalIndex().getSignalingRobots();
+        robots.remove(this);
+        return robots;
     }
 
     /**
@@ -95,12 +268,33 @@ public class Robot extends Entity implements RobotContext {
      * @param instructions A list of instructions representing the Robot's program.
      */
     public void program(List<RobotInstruction> instructions) {
-        endInstructionExecuted = false;
-        program.clear();
-        lastMove = Optional.empty();
+        program(new CompiledProgram(instructions));
+    }
 
-        program.addAll(instructions);
-        bodyTracker.startBody(instructions, 0, new EndInstruction());
+    /**
+     * This function programs the Robot's processor with a program compiled beforehand, usually shared by
+     * the whole swarm, and sets up the robot state to ready-it-up for program execution.
+     *
+     * @param compiledProgram The compiled program.
+     */
+    public void program(CompiledProgram compiledProgram) {
+        state.setDone(id, false);
+        state.clearLastMove(id);
+
+        program = compiledProgram;
+        state.setProgramCounter(id, 0);
+        state.setRepeatDepth(id, 0);
+        state.ensureRepeatLevels(program.getBytecode().getMaxRepeatDepth());
+        publishState();
+    }
+
+    /**
+     * Returns the program the Robot is running.
+     *
+     * @return The compiled program.
+     */
+    public CompiledProgram getProgram() {
+        return program;
     }
 
     /**
@@ -109,7 +303,7 @@ public class Robot extends Entity implements RobotContext {
      * @return True if it's done, false if it's not.
      */
     public boolean isRobotDone() {
-        return endInstructionExecuted;
+        return state.isDone(id);
     }
 
     /**
@@ -120,17 +314,84 @@ public class Robot extends Entity implements RobotContext {
      * @throws RobotExecutionException in case of invalid instructions or instruction parameters.
      */
     public void tick(long millis, long simTime) throws RobotExecutionException {
+        step(millis, simTime);
+        publishState();
+    }
+
+    /**
+     * Read phase of a tick: runs the entity update tick and the processor tick, only looking at other robots
+     * through the state they published. The new state of this robot stays private until {@link #publishState()}.
+     *
+     * @param millis The amount of time that the processor should take to execute an instruction.
+     * @param simTime The amount of time that the physical simulation should advance by.
+     * @throws RobotExecutionException in case of invalid instructions or instruction parameters.
+     */
+    void step(long millis, long simTime) throws RobotExecutionException {
         super.tick(simTime);
         processorTick(millis);
     }
 
+    /**
+     * Commit phase of a tick: publishes the robot's position and signals so that other robots observe them
+     * during the next tick.
+     */
+    void publishState() {
+        publishPosition();
+        publishSignals();
+    }
+
+    /**
+     * Publishes the robot's position. Only touches this robot, so it is safe to run for many robots at once.
+     */
+    void publishPosition() {
+        state.publishPositions(id, id + 1);
+    }
+
+    /**
+     * Checks whether the robot's signals changed since they were last published.
+     *
+     * @return True if there are signal changes to publish.
+     */
+    boolean hasUnpublishedSignals() {
+        return state.isSignalsChanged(id);
+    }
+
+    /**
+     * Publishes the robot's signals, updating the signal index in place with the labels that were
+     * signaled or unsignaled since the last publish. Must not run concurrently with other robots sharing the index.
+     */
+    void publishSignals() {
+        if (!state.isSignalsChanged(id)) {
+            return;
+        }
+
+        SignalIndex index = signalIndex();
+        for (int word = 0; word <= extraSignals.length; word++) {
+            long signals = signalWord(word);
+            long published = getPublishedSignalWord(word);
+            long removed = published & ~signals;
+            long added = signals & ~published;
+
+            for (; removed != 0; removed &= removed - 1) {
+                index.remove(word * Long.SIZE + Long.numberOfTrailingZeros(removed), this);
+            }
+            for (; added != 0; added &= added - 1) {
+                index.add(word * Long.SIZE + Long.numberOfTrailingZeros(added), this);
+            }
+
+            setPublishedSignalWord(word, signals);
+        }
+
+        state.setSignalsChanged(id, false);
+    }
+
     /**
      * Updates the continuing state of the robot, decreasing the amount of time that it still has to continue for.
      *
-     * @param millis The amount of milliseconds to subtract from the continuingMillis internal field.
+     * @param millis The amount of milliseconds to subtract from the time the robot still has to continue for.
      */
     private void updateContinuingState(long millis) {
-        continuingMillis -= millis;
+        state.setContinuingMillis(id, state.getContinuingMillis(id) - millis);
     }
 
     /**
@@ -140,11 +401,11 @@ public class Robot extends Entity implements RobotContext {
      * @return True if updates were pending and got executed, false if not.
      */
     private boolean areStateUpdatesPending(long millis) {
-        if (endInstructionExecuted) {
+        if (state.isDone(id)) {
             return true;
         }
 
-        if (continuingMillis != 0) {
+        if (state.getContinuingMillis(id) != 0) {
             updateContinuingState(millis);
             return true;
         }
@@ -153,117 +414,228 @@ public class Robot extends Entity implements RobotContext {
     }
 
     /**
-     * Executes the last move if present.
+     * Works out how many upcoming ticks the processor will spend only keeping the robot moving, because it is done
+     * or still executing CONTINUE.
+     *
+     * @param millis The amount of milliseconds it takes to execute an instruction.
+     * @return The amount of idle ticks, Long.MAX_VALUE if the robot stays idle forever.
      */
-    private void executeLastMove() {
-        if (!lastMove.isEmpty()) {
-            lastMove.get().execute(this);
+    long idleTicks(long millis) {
+        if (state.isDone(id)) {
+            return Long.MAX_VALUE;
         }
+
+        long continuing = state.getContinuingMillis(id);
+        if (continuing == 0) {
+            return 0;
+        }
+
+        // CONTINUE only ends when the remaining time hits 0 exactly.
+        return continuing > 0 && continuing % millis == 0 ? continuing / millis : Long.MAX_VALUE;
     }
 
     /**
-     * Executes a single processor tick.
+     * Checks whether the robot's movement over idle ticks can be solved in closed form: it repeats its last move,
+     * or it stays put.
      *
-     * @param millis the amount of time that passes in processor time for every instruction
-     * @throws RobotExecutionException if an error occurs during execution
+     * A robot repeating its last move must also have its target at the offset of that move already. It does not
+     * after a tick whose opcode did not repeat the move, such as END or the end of a loop, and its next tick still
+     * moves it towards the target set before: that tick has to be run.
+     *
+     * @return True if {@link #coast(long, long, long)} can simulate the robot.
      */
-    private void processorTick(long millis) throws RobotExecutionException {
-        if (areStateUpdatesPending(millis)) {
-            // Keep it moving.
-            executeLastMove();
-            return;
-        }
-
-        var currentBody = bodyTracker.peekBody();
-        var currentInstructionPointer = bodyTracker.peekInstructionPointer();
-
-        if (currentBody.size() - 1 < currentInstructionPointer) {
-            handleLoopEndLogic();
-            return;
+    boolean canCoast() {
+        if (state.hasLastMove(id)) {
+            return state.getTargetX(id) == state.getX(id) + state.getLastMoveX(id)
+                    && state.getTargetY(id) == state.getY(id) + state.getLastMoveY(id);
         }
 
-        executeInstruction(currentInstructionPointer);
+        return state.isAtRest(id);
     }
 
     /**
-     * Retrieves the state of the robot as a formatted string.
+     * Simulates several idle ticks at once, as many ticks would: moves the robot along its last move and consumes
+     * its CONTINUE time. The robot must be idle for at least that many ticks, and able to coast.
      *
-     * @return the robot state information
+     * @param ticks   The amount of ticks to simulate.
+     * @param millis  The amount of milliseconds it takes to execute an instruction.
+     * @param simTime The amount of time the physical simulation advances by every tick.
      */
-    public String getState() {
-        StringBuilder stateBuilder = new StringBuilder();
+    void coast(long ticks, long millis, long simTime) {
+        if (!state.isDone(id)) {
+            state.setContinuingMillis(id, state.getContinuingMillis(id) - ticks * millis);
+        }
 
-        stateBuilder.append("Robot State for Robot ID: ").append(this).append("\n");
-        stateBuilder.append(getEntityState());
-        stateBuilder.append("Signals: ").append(getSignals()).append("\n");
-        stateBuilder.append("Signaling Robots: ").append(getSignalingRobots()).append("\n");
-        stateBuilder.append("Continuing: ").append(continuingMillis != 0 ? "Yes" : "No").append("\n");
-        stateBuilder.append("Continuing for: ").append(continuingMillis).append("ms\n");
+        if (state.hasLastMove(id)) {
+            double lastMoveX = state.getLastMoveX(id);
+            double lastMoveY = state.getLastMoveY(id);
+            state.coast(id, ticks, simTime, lastMoveX, lastMoveY);
+            Move(lastMoveX, lastMoveY, state.getLastMoveSpeed(id));
+            return;
+        }
 
-        stateBuilder.append("-----\n");
+        // At rest, so the first tick is the only one that may change anything (the heading).
+        super.tick(simTime);
+    }
 
-        return stateBuilder.toString();
+    /**
+     * Executes the last move if present.
+     */
+    private void executeLastMove() {
+        if (state.hasLastMove(id)) {
+            Move(state.getLastMoveX(id), state.getLastMoveY(id), state.getLastMoveSpeed(id));
+        }
     }
 
     /**
-     * Executes the instruction at the given instruction pointer.
+     * Executes a single processor tick: runs opcodes until one of them takes up the tick.
      *
-     * Also makes sure the move state is preserved and executed properly.
+     * Leaf instructions, entering a loop and leaving a loop take up a tick, while jumping back to the start of a
+     * REPEAT body does not, so that REPEAT takes the same time as its body written out the given amount of times.
+     * Every instruction but MOVE keeps the robot moving according to the last MOVE before executing.
      *
-     * @param currentInstructionPointer the current instruction pointer in the relevant loop body
+     * @param millis the amount of time that passes in processor time for every instruction
      * @throws RobotExecutionException if an error occurs during execution
      */
-    private void executeInstruction(int currentInstructionPointer) throws RobotExecutionException {
-        var currentInstruction = bodyTracker.peekBody().get(currentInstructionPointer);
-
-        if (!Objects.equals(currentInstruction.getInstructionType(), "MOVE")) {
+    void processorTick(long millis) throws RobotExecutionException {
+        if (areStateUpdatesPending(millis)) {
+            // Keep it moving.
             executeLastMove();
+            executedOpcode = -1;
+            return;
         }
 
-        executeAndIncreaseIp(currentInstruction);
+        Bytecode bytecode = program.getBytecode();
+        int[] code = bytecode.getCode();
+        int pc = state.getProgramCounter(id);
+
+        while (true) {
+            int opcode = code[pc];
+            int next;
+
+            switch (opcode) {
+                case Bytecode.MOVE, Bytecode.MOVE_RANDOM -> {
+                    bytecode.getInstruction(code[pc + 1]).execute(this);
+                    next = pc + 2;
+                }
+                case Bytecode.SIGNAL, Bytecode.UNSIGNAL, Bytecode.FOLLOW, Bytecode.STOP, Bytecode.CONTINUE -> {
+                    executeLastMove();
+                    bytecode.getInstruction(code[pc + 1]).execute(this);
+                    next = pc + 2;
+                }
+                case Bytecode.REPEAT -> {
+                    executeLastMove();
+                    int times = code[pc + 1];
+                    int depth = state.getRepeatDepth(id);
+
+                    // With nothing to repeat, the loop still takes up its end tick.
+                    state.setRepeatCounter(id, depth, Math.max(times, 1));
+                    state.setRepeatDepth(id, depth + 1);
+                    next = times > 0 ? pc + 3 : code[pc + 2];
+                }
+                case Bytecode.REPEAT_END -> {
+                    int body = code[pc + 1];
+                    int depth = state.getRepeatDepth(id) - 1;
+                    int left = state.getRepeatCounter(id, depth) - 1;
+                    state.setRepeatCounter(id, depth, left);
+
+                    if (left > 0 && body != pc) {
+                        pc = body;
+                        continue;
+                    }
+
+                    state.setRepeatDepth(id, depth);
+                    next = pc + 2;
+                }
+                case Bytecode.UNTIL -> {
+                    executeLastMove();
+                    next = checkUntilCondition(bytecode.getLabel(code[pc + 1])) ? code[pc + 2] : pc + 3;
+                }
+                case Bytecode.UNTIL_END ->
+                        next = checkUntilCondition(bytecode.getLabel(code[pc + 1])) ? pc + 3 : code[pc + 2];
+                case Bytecode.DO_FOREVER -> {
+                    executeLastMove();
+                    next = pc + 1;
+                }
+                case Bytecode.FOREVER_END -> next = code[pc + 1];
+                case Bytecode.END -> {
+                    Terminate();
+                    next = pc;
+                }
+                default -> throw new RobotExecutionException("Invalid opcode " + opcode + " at " + pc + ".");
+            }
+
+            state.setProgramCounter(id, next);
+            executedOpcode = opcode;
+            return;
+        }
     }
 
     /**
-     * Handles the logic when reaching the end of a loop.
+     * Executes a processor tick recorded as an InstructionExecutionEvent, for the robots sampled by the controller.
      *
+     * @param millis the amount of time that passes in processor time for every instruction
      * @throws RobotExecutionException if an error occurs during execution
      */
-    private void handleLoopEndLogic() throws RobotExecutionException {
-        var loopInstruction = bodyTracker.peekLoopInstruction();
-        bodyTracker.endBody();
+    void sampledProcessorTick(long millis) throws RobotExecutionException {
+        InstructionExecutionEvent event = new InstructionExecutionEvent();
+        event.begin();
 
-        switch (loopInstruction.getInstructionType()) {
-            case "REPEAT" -> {
-                return;
-            }
-            case "END" -> {
-                loopInstruction.execute(this);
-                return;
-            }
+        processorTick(millis);
+
+        if (event.shouldCommit()) {
+            event.robot = id;
+            event.opcode = executedOpcode >= 0 ? Bytecode.name(executedOpcode) : null;
+            event.commit();
         }
+    }
 
-        executeAndIncreaseIp(loopInstruction);
+    /**
+     * Retrieves the opcode that took up the last processor tick, i.e. the instruction the robot executed.
+     *
+     * @return The opcode, one of the Bytecode constants, or -1 if the robot was done or still executing CONTINUE.
+     */
+    int getExecutedOpcode() {
+        return executedOpcode;
     }
 
     /**
-     * Executes the given instruction and increases the instruction pointer.
+     * Checks whether other robots observe the robot signaling any label.
      *
-     * @param instruction the instruction to execute
-     * @throws RobotExecutionException if an error occurs during execution
+     * @return True if the published signals aren't empty.
      */
-    private void executeAndIncreaseIp(RobotInstruction instruction) throws RobotExecutionException {
-        instruction.execute(this);
-        bodyTracker.increaseIntegerValue();
+    boolean isSignaling() {
+        if (state.getPublishedSignals(id) != 0) {
+            return true;
+        }
+
+        for (long word : extraPublishedSignals) {
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Updates the last move state for the Robot, so that it may be remembered in the following processor tick.
+     * Retrieves the state of the robot as a formatted string.
      *
-     * @param coordinates Coordinates of the last move.
-     * @param speed Speed of the last move.
+     * @return the robot state information
      */
-    private void updateLastMoveState(double[] coordinates, double speed) {
-        lastMove = Optional.of(new MoveInstruction(coordinates, speed));
+    public String getState() {
+        StringBuilder stateBuilder = new StringBuilder();
+
+        stateBuilder.append("Robot State for Robot ID: ").append(this).append("\n");
+        stateBuilder.append(getEntityState());
+        stateBuilder.append("Signals: ").append(getSignals()).append("\n");
+        stateBuilder.append("Signaling Robots: ").append(getSignalingRobots()).append("\n");
+        long continuingMillis = state.getContinuingMillis(id);
+        stateBuilder.append("Continuing: ").append(continuingMillis != 0 ? "Yes" : "No").append("\n");
+        stateBuilder.append("Continuing for: ").append(continuingMillis).append("ms\n");
+
+        stateBuilder.append("-----\n");
+
+        return stateBuilder.toString();
     }
 
     /**
@@ -274,11 +646,23 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void Move(double[] coordinates, double speed) {
-        targetX = getX() + coordinates[0];
-        targetY = getY() + coordinates[1];
-        this.speed = speed;
+        Move(coordinates[0], coordinates[1], speed);
+    }
 
-        updateLastMoveState(coordinates, speed);
+    /**
+     * Moves the robot to the specified relative coordinates with the given speed, remembering the move so
+     * that it may be repeated in the following processor ticks.
+     *
+     * @param x     The relative x-coordinate to move the robot to.
+     * @param y     The relative y-coordinate to move the robot to.
+     * @param speed The speed at which the robot should move.
+     */
+    @Override
+    public void Move(double x, double y, double speed) {
+        state.setTargetX(id, getX() + x);
+        state.setTargetY(id, getY() + y);
+        state.setSpeed(id, speed);
+        state.setLastMove(id, x, y, speed);
     }
 
     /**
@@ -288,7 +672,13 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void Signal(String label) {
-        signals.add(label);
+        int labelId = SignalLabels.intern(label);
+
+        if (!hasSignal(labelId)) {
+            int word = labelId / Long.SIZE;
+            setSignalWord(word, signalWord(word) | 1L << labelId);
+            state.setSignalsChanged(id, true);
+        }
     }
 
     /**
@@ -298,11 +688,25 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void Unsignal(String label) throws RobotExecutionException {
-        if (!signals.contains(label)) {
+        int labelId = SignalLabels.find(label);
+
+        if (labelId < 0 || !hasSignal(labelId)) {
             throw new RobotExecutionException("Tried unsignaling a label that's not there!");
         }
-        
-        signals.remove(label);
+
+        int word = labelId / Long.SIZE;
+        setSignalWord(word, signalWord(word) & ~(1L << labelId));
+        state.setSignalsChanged(id, true);
+    }
+
+    /**
+     * Checks whether the robot is signaling a label.
+     *
+     * @param labelId The id of the label.
+     * @return True if the label is in the robot's signal bitset.
+     */
+    private boolean hasSignal(int labelId) {
+        return (signalWord(labelId / Long.SIZE) & (1L << labelId)) != 0;
     }
 
     /**
@@ -310,9 +714,9 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void Stop() {
-        lastSpeed = speed;
-        lastMove = Optional.empty();
-        speed = 0;
+        state.setLastSpeed(id, getSpeed());
+        state.clearLastMove(id);
+        state.setSpeed(id, 0);
     }
 
     /**
@@ -322,7 +726,7 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void ContinueFor(int seconds) {
-        continuingMillis = seconds * 1000L;
+        state.setContinuingMillis(id, seconds * 1000L);
     }
 
     /**
@@ -334,12 +738,15 @@ public class Robot extends Entity implements RobotContext {
      */
     @Override
     public void Follow(String label, double[] parameters) throws RobotExecutionException {
-        List<Robot> validRobots = getValidRobots(label, parameters[0]);
+        if (followQuery == null) {
+            followQuery = new FollowQuery();
+        }
+        followQuery.start();
+        signalIndex().query(label, getX(), getY(), parameters[0], followQuery);
 
-        if (!validRobots.isEmpty()) {
-            double[] direction = calculateDirection(validRobots);
-            double[] targetCoordinates = calculateTargetCoordinates(direction, parameters[0]);
-            Move(targetCoordinates, parameters[1]);
+        if (followQuery.count > 0) {
+            moveTowards(followQuery.sumX / followQuery.count, followQuery.sumY / followQuery.count,
+                    parameters[0], parameters[1]);
 
             return;
         }
@@ -348,106 +755,16 @@ public class Robot extends Entity implements RobotContext {
     }
 
     /**
-     * Calculates the distance between this robot and the specified robot.
-     *
-     * @param robot the robot to calculate the distance to
-     * @return the distance between the two robots
-     */
-    private double calculateDistance(Robot robot) {
-        double deltaX = robot.getX() - getX();
-        double deltaY = robot.getY() - getY();
-        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
-    }
-
-    /**
-     * Retrieves a list of valid robots based on the specified label and distance criteria.
+     * Moves the robot by the given distance in the direction of the given average position of the followed robots.
      *
-     * @param label    the label to match
-     * @param distance the maximum distance to consider
-     * @return a list of valid robots that satisfy the criteria
+     * @param averageX the average X-coordinate of the followed robots
+     * @param averageY the average Y-coordinate of the followed robots
+     * @param distance the distance from the current position to the target position
+     * @param speed    the speed at which the robot should move
      */
-    private List<Robot> getValidRobots(String label, double distance) {
-        return signalingRobots.stream()
-                .filter(robot -> robot.getSignals().contains(label))
-                .filter(robot -> calculateDistance(robot) <= distance)
-                .toList();
-    }
-
-    /**
-     * Calculates the direction based on the list of valid robots.
-     *
-     * @param validRobots the list of valid robots to calculate the direction from
-     * @return an array representing the direction in the X and Y axes
-     * @throws RobotExecutionException if an error occurs during execution
-     */
-    private double[] calculateDirection(List<Robot> validRobots) throws RobotExecutionException {
-        try {
-            double avgX = calculateAverageX(validRobots);
-            double avgY = calculateAverageY(validRobots);
-            double directionX = calculateDirectionX(avgX);
-            double directionY = calculateDirectionY(avgY);
-            return normalizeDirection(directionX, directionY);
-        } catch (NoSuchElementException ex) {
-            throw new RobotExecutionException("Direction normalization error.");
-        }
-    }
-
-    /**
-     * Calculates the average X-coordinate value among the list of valid robots.
-     *
-     * @param validRobots the list of valid robots to calculate the average X-coordinate from
-     * @return the average X-coordinate value
-     * @throws NoSuchElementException if the list of valid robots is empty
-     */
-    private double calculateAverageX(List<Robot> validRobots) {
-        return validRobots.stream()
-                .mapToDouble(Robot::getX)
-                .average()
-                .orElseThrow();
-    }
-
-    /**
-     * Calculates the average Y-coordinate value among the list of valid robots.
-     *
-     * @param validRobots the list of valid robots to calculate the average Y-coordinate from
-     * @return the average Y-coordinate value
-     * @throws NoSuchElementException if the list of valid robots is empty
-     */
-    private double calculateAverageY(List<Robot> validRobots) {
-        return validRobots.stream()
-                .mapToDouble(Robot::getY)
-                .average()
-                .orElseThrow();
-    }
-
-    /**
-     * Calculates the direction in the X-axis based on the average X-coordinate value.
-     *
-     * @param averageX the average X-coordinate value
-     * @return the direction in the X-axis
-     */
-    private double calculateDirectionX(double averageX) {
-        return averageX - getX();
-    }
-
-    /**
-     * Calculates the direction in the Y-axis based on the average Y-coordinate value.
-     *
-     * @param averageY the average Y-coordinate value
-     * @return the direction in the Y-axis
-     */
-    private double calculateDirectionY(double averageY) {
-        return averageY - getY();
-    }
-
-    /**
-     * Normalizes the direction represented by the given X and Y components.
-     *
-     * @param directionX the X component of the direction
-     * @param directionY the Y component of the direction
-     * @return an array representing the normalized direction in the X and Y axes
-     */
-    private double[] normalizeDirection(double directionX, double directionY) {
+    private void moveTowards(double averageX, double averageY, double distance, double speed) {
+        double directionX = averageX - getX();
+        double directionY = averageY - getY();
         double norm = Math.sqrt(directionX * directionX + directionY * directionY);
 
         if (norm != 0) {
@@ -455,20 +772,7 @@ public class Robot extends Entity implements RobotContext {
             directionY /= norm;
         }
 
-        return new double[]{directionX, directionY};
-    }
-
-    /**
-     * Calculates the target coordinates based on the given direction and distance.
-     *
-     * @param direction the direction in the X and Y axes
-     * @param distance  the distance from the current position to the target position
-     * @return an array representing the target coordinates in the X and Y axes
-     */
-    private double[] calculateTargetCoordinates(double[] direction, double distance) {
-        double targetX = getX() + distance * direction[0];
-        double targetY = getY() + distance * direction[1];
-        return new double[]{targetX, targetY};
+        Move(getX() + distance * directionX, getY() + distance * directionY, speed);
     }
 
     /**
@@ -478,27 +782,10 @@ public class Robot extends Entity implements RobotContext {
      * @param speed the speed at which the robot should move
      */
     private void moveRandomlyWithinRange(double range, double speed) {
-        double randomX = getX() + (Math.random() * 2 - 1) * range;
-        double randomY = getY() + (Math.random() * 2 - 1) * range;
-        Move(new double[]{randomX, randomY}, speed);
-    }
-
-    /**
-     * Repeats the specified instructions for the given number of times.
-     *
-     * @param times       the number of times to repeat the instructions
-     * @param instructions the list of instructions to repeat
-     */
-    @Override
-    public void Repeat(int times, List<RobotInstruction> instructions) {
-        bodyTracker.increaseIntegerValue();
-        List<RobotInstruction> buffer = new ArrayList<>();
-
-        for (int i = 0; i < times; i++) {
-            buffer.addAll(instructions);
-        }
-
-        bodyTracker.startBody(buffer, -1, new RepeatInstruction(times, instructions));
+        RandomGenerator random = getRandom();
+        double randomX = getX() + (random.nextDouble() * 2 - 1) * range;
+        double randomY = getY() + (random.nextDouble() * 2 - 1) * range;
+        Move(randomX, randomY, speed);
     }
 
     /**
@@ -508,42 +795,41 @@ public class Robot extends Entity implements RobotContext {
      * @return true if the environmental label matches the specified label, false otherwise
      */
     private boolean checkUntilCondition(String label) {
-        Optional<String> environmentalLabel = getEnvironmentalLabel();
-        return environmentalLabel.isPresent() && environmentalLabel.get().equals(label);
+        return isInEnvironmentalLabel(label);
     }
 
     /**
-     * Executes the specified instructions until the condition, indicated by the label, is met.
-     *
-     * @param label       the label indicating the condition to be met
-     * @param instructions the list of instructions to execute
+     * Terminates the execution of the robot's instructions.
+     * This method sets the flag to indicate that the end instruction has been executed.
      */
     @Override
-    public void Until(String label, List<RobotInstruction> instructions) {
-        bodyTracker.increaseIntegerValue();
-
-        boolean conditionMet = checkUntilCondition(label); // Implement your condition check logic.
-        if (!conditionMet) {
-            bodyTracker.startBody(instructions, -1, new UntilInstruction(label, instructions));
-        }
+    public void Terminate() {
+        state.setDone(id, true);
     }
 
     /**
-     * Executes the specified instructions indefinitely in a loop.
-     *
-     * @param instructions the list of instructions to execute
+     * Accumulates the published positions of the other robots found within the FOLLOW radius.
      */
-    @Override
-    public void DoForever(List<RobotInstruction> instructions) {
-        bodyTracker.startBody(instructions, -1, new DoForeverInstruction(instructions));
-    }
+    private final class FollowQuery implements SpatialHashGrid.Visitor<Robot> {
+        private int count;
+        private double sumX, sumY;
 
-    /**
-     * Terminates the execution of the robot's instructions.
-     * This method sets the flag to indicate that the end instruction has been executed.
-     */
-    @Override
-    public void Terminate() {
-        endInstructionExecuted = true;
+        /**
+         * Resets the accumulator for a new query.
+         */
+        void start() {
+            count = 0;
+            sumX = 0;
+            sumY = 0;
+        }
+
+        @Override
+        public void visit(Robot robot, double x, double y) {
+            if (robot != Robot.this) {
+                count++;
+                sumX += x;
+                sumY += y;
+            }
+        }
     }
-}
\ No newline at end of file
+}
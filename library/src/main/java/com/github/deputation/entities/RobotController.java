@@ -1,11 +1,16 @@
 package com.github.deputation.entities;
 
 import com.github.deputation.RobotExecutionException;
+import com.github.deputation.TickMetrics;
+import com.github.deputation.events.InstructionExecutionEvent;
+import com.github.deputation.events.SimulationTickEvent;
 import com.github.deputation.instructions.RobotInstruction;
+import com.github.deputation.language.Bytecode;
+import com.github.deputation.language.CompiledProgram;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.SplittableRandom;
 
 public class RobotController {
     /**
@@ -14,16 +19,79 @@ public class RobotController {
     private final List<Robot> swarm;
 
     /**
-     * Constructs a RobotController with the specified number of robots.
+     * Store holding the kinematic and processor state of every robot in the swarm, indexed by position in the swarm.
+     */
+    private final SwarmState state;
+
+    /**
+     * Engine used to run the phases of every tick.
+     */
+    private TickEngine tickEngine;
+
+    /**
+     * Number of ticks simulated so far, skipped ticks included.
+     */
+    private long ticks;
+
+    /**
+     * Index of the robots signaling each label, shared by the whole swarm.
+     */
+    private final SignalIndex signalIndex;
+
+    /**
+     * Metrics of the ticks, disabled unless asked for.
+     */
+    private TickMetrics metrics;
+
+    /**
+     * Durations of the phases of the last timed tick, in nanoseconds, indexed by phase.
+     */
+    private final long[] phaseNanos;
+
+    /**
+     * Constructs a RobotController with the specified number of robots, keeping their state on the heap.
      *
      * @param robots the number of robots to create in the swarm
      */
     public RobotController(int robots) {
+        this(new HeapSwarmState(robots));
+    }
 
-        swarm = new ArrayList<>();
+    /**
+     * Constructs a RobotController with one robot for every slot of the given store, which holds their state.
+     * Use an {@link OffHeapSwarmState} to keep the state of very large swarms out of the heap.
+     *
+     * @param state the store holding the state of the swarm
+     */
+    public RobotController(SwarmState state) {
+        int robots = state.getCapacity();
+
+        swarm = new ArrayList<>(robots);
+        this.state = state;
+        tickEngine = new SequentialTickEngine();
+        signalIndex = new SignalIndex(Robot.DEFAULT_SENSOR_CELL_SIZE);
+        metrics = new TickMetrics();
+        phaseNanos = new long[TickMetrics.Phase.values().length];
 
         for (int i = 0; i < robots; i++) {
-            swarm.add(new Robot());
+            Robot robot = new Robot(state, i);
+            robot.joinSignalIndex(signalIndex);
+            swarm.add(robot);
+        }
+    }
+
+    /**
+     * Seeds the random sources of the swarm from a root seed: every robot gets a stream of its own, split off the
+     * root in swarm order. Runs seeded alike are reproducible, whatever the tick engine, as robots never share a
+     * generator.
+     *
+     * @param rootSeed the root seed
+     */
+    public void seed(long rootSeed) {
+        SplittableRandom root = new SplittableRandom(rootSeed);
+
+        for (Robot robot : swarm) {
+            robot.setRandom(root);
         }
     }
 
@@ -36,6 +104,51 @@ public class RobotController {
         return swarm;
     }
 
+    /**
+     * Retrieves the store holding the kinematic and processor state of the swarm.
+     *
+     * @return the swarm state
+     */
+    public SwarmState getSwarmState() {
+        return state;
+    }
+
+    /**
+     * Retrieves the engine used to run the phases of every tick.
+     *
+     * @return the tick engine
+     */
+    public TickEngine getTickEngine() {
+        return tickEngine;
+    }
+
+    /**
+     * Sets the engine used to run the phases of every tick.
+     *
+     * @param tickEngine the tick engine to use
+     */
+    public void setTickEngine(TickEngine tickEngine) {
+        this.tickEngine = tickEngine;
+    }
+
+    /**
+     * Retrieves the metrics of the ticks, recorded only while they are enabled.
+     *
+     * @return the tick metrics
+     */
+    public TickMetrics getTickMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the metrics the ticks are recorded in, e.g. to share them with the code running the ticks.
+     *
+     * @param metrics the tick metrics to record in
+     */
+    public void setTickMetrics(TickMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Programs all the robots in the swarm with the specified instructions.
      *
@@ -43,7 +156,31 @@ public class RobotController {
      * @throws RobotExecutionException if an error occurs during execution
      */
     public void programSwarm(List<RobotInstruction> instructions) throws RobotExecutionException {
-        swarm.forEach(r -> r.program(instructions));
+        programSwarm(new CompiledProgram(instructions));
+    }
+
+    /**
+     * Programs all the robots in the swarm with the specified compiled program. The program is shared by
+     * every robot rather than copied.
+     *
+     * @param program the compiled program to program the robots with
+     * @throws RobotExecutionException if an error occurs during execution
+     */
+    public void programSwarm(CompiledProgram program) throws RobotExecutionException {
+        signalIndex.setCellSize(sensorCellSize(program));
+        swarm.forEach(r -> r.program(program));
+    }
+
+    /**
+     * Picks the cell size of the signal grid: the largest FOLLOW distance in the program, so that
+     * FOLLOW queries only ever look at the neighbouring cells.
+     *
+     * @param program the program the swarm runs
+     * @return the cell size to use for the signal grid
+     */
+    private static double sensorCellSize(CompiledProgram program) {
+        double maxDistance = program.getMaxFollowDistance();
+        return maxDistance > 0 ? maxDistance : Robot.DEFAULT_SENSOR_CELL_SIZE;
     }
 
     /**
@@ -56,36 +193,153 @@ public class RobotController {
     }
 
     /**
-     * Performs a sensor update by collecting signaling robots in the swarm
-     * and updating each robot's input signaling robots.
+     * Retrieves the index of the robots signaling each label.
+     *
+     * @return the swarm's signal index
      */
-    public void sensorUpdate() {
-        List<Robot> signalingRobots = swarm.stream()
-                .filter(r -> r.getSignals().size() > 0)
-                .collect(Collectors.toList());
+    public SignalIndex getSignalIndex() {
+        return signalIndex;
+    }
 
-        swarm.forEach(r -> {
-            r.inputSignalingRobots(signalingRobots);
-        });
+    /**
+     * Performs a sensor update by re-indexing the published positions of the signaling robots,
+     * which FOLLOW then looks up by label.
+     */
+    public void sensorUpdate() {
+        signalIndex.refresh();
     }
 
     /**
      * Updates the sensors of all robots in the swarm and performs a tick operation.
      *
+     * The tick runs in two phases: during the read phase every robot moves and runs its processor against the
+     * state the others published at the end of the previous tick, during the commit phase every robot publishes
+     * its new state. Robots never observe each other mid-phase, so the tick engine is free to split both phases
+     * across threads. Movement runs first as a loop over the swarm state columns, as it only touches the
+     * moving robot's own slot.
+     *
      * @param millis   the number of milliseconds elapsed since the last tick
      * @param simTime  the current simulation time
      * @throws RuntimeException if a RobotExecutionException occurs during the tick operation
      */
     private void updateSensorsAndTick(long millis, long simTime) {
+        boolean counted = metrics.isEnabled();
+        boolean timed = counted || SimulationTickEvent.isRecorded();
+        // One robot in every sampling interval records its instruction, a different one every tick.
+        int sampled = InstructionExecutionEvent.isRecorded()
+                ? (int) (ticks % InstructionExecutionEvent.SAMPLING_INTERVAL) : -1;
+        long start = timed ? System.nanoTime() : 0;
+
         sensorUpdate();
+        start = lap(timed, TickMetrics.Phase.SENSOR_UPDATE, start);
+
+        tickEngine.forEachRange(swarm.size(), (from, to) -> state.tick(from, to, simTime));
+        start = lap(timed, TickMetrics.Phase.PHYSICS, start);
+
+        tickEngine.forEachRange(swarm.size(), (from, to) -> processorTicks(from, to, millis, counted, sampled));
+        start = lap(timed, TickMetrics.Phase.PROCESSOR, start);
+
+        tickEngine.forEachRange(swarm.size(), state::publishPositions);
+
+        // The index is shared, so signal changes are applied on this thread and in swarm order,
+        // which keeps the order of the robots in every label deterministic whatever the engine.
+        for (Robot robot : swarm) {
+            if (robot.hasUnpublishedSignals()) {
+                robot.publishSignals();
+            }
+        }
+
+        lap(timed, TickMetrics.Phase.PUBLISH, start);
+
+        if (counted) {
+            recordPhases(TickMetrics.Phase.SENSOR_UPDATE, TickMetrics.Phase.PHYSICS, TickMetrics.Phase.PROCESSOR,
+                    TickMetrics.Phase.PUBLISH);
+            recordSwarm();
+        }
+    }
+
+    /**
+     * Runs the processor tick of a range of robots, counting the instructions they execute if asked to.
+     *
+     * @param from    the first robot, inclusive
+     * @param to      the last robot, exclusive
+     * @param millis  the number of milliseconds elapsed since the last tick
+     * @param counted whether instructions are counted into the tick metrics
+     * @param sampled the robots whose index modulo the sampling interval is this record an
+     *                InstructionExecutionEvent, none if negative
+     */
+    private void processorTicks(int from, int to, long millis, boolean counted, int sampled) {
+        long[] executed = counted ? new long[Bytecode.OPCODES] : null;
+
+        for (int i = from; i < to; i++) {
+            Robot robot = swarm.get(i);
 
-        swarm.forEach(r -> {
             try {
-                r.tick(millis, simTime);
+                if (sampled >= 0 && i % InstructionExecutionEvent.SAMPLING_INTERVAL == sampled) {
+                    robot.sampledProcessorTick(millis);
+                } else {
+                    robot.processorTick(millis);
+                }
             } catch (RobotExecutionException e) {
                 throw new RuntimeException(e);
             }
-        });
+
+            if (counted && robot.getExecutedOpcode() >= 0) {
+                executed[robot.getExecutedOpcode()]++;
+            }
+        }
+
+        if (counted) {
+            metrics.recordInstructions(executed);
+        }
+    }
+
+    /**
+     * Ends a phase of a timed tick, keeping its duration.
+     *
+     * @param timed whether the tick is timed, if not nothing is kept and no clock is read
+     * @param phase the phase that ended
+     * @param start the time the phase started at, in nanoseconds
+     * @return the time the phase ended at, which the next one starts at
+     */
+    private long lap(boolean timed, TickMetrics.Phase phase, long start) {
+        if (!timed) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] = now - start;
+        return now;
+    }
+
+    /**
+     * Records the durations of phases of the last tick into the tick metrics.
+     *
+     * @param phases the phases to record
+     */
+    private void recordPhases(TickMetrics.Phase... phases) {
+        for (TickMetrics.Phase phase : phases) {
+            metrics.recordPhase(phase, phaseNanos[phase.ordinal()]);
+        }
+    }
+
+    /**
+     * Records the end of a measured tick, with how many robots are done and signaling.
+     */
+    private void recordSwarm() {
+        int done = 0;
+        int signaling = 0;
+
+        for (Robot robot : swarm) {
+            if (robot.isRobotDone()) {
+                done++;
+            }
+            if (robot.isSignaling()) {
+                signaling++;
+            }
+        }
+
+        metrics.recordTick(done, signaling);
     }
 
     /**
@@ -96,5 +350,88 @@ public class RobotController {
      */
     public void tick(long millis, long simTime) {
         updateSensorsAndTick(millis, simTime);
+        ticks++;
+    }
+
+    /**
+     * Jumps straight to the next tick in which a robot does something observable, when no robot does anything
+     * before it: every robot is either done or executing CONTINUE, so the only thing happening is movement along
+     * the last moves, which is solved in closed form. The next observable thing is then a CONTINUE expiring, and
+     * the swarm is left in the state the skipped ticks would have left it in, within floating point rounding.
+     *
+     * Robots only look at environment labels and other robots when executing instructions, so label crossings and
+     * neighbour movements during the skipped ticks can't be observed by the swarm.
+     *
+     * @param millis  the number of milliseconds elapsed every tick
+     * @param simTime the simulation time every tick advances by
+     * @return the number of ticks skipped, 0 if the next tick has to be run with {@link #tick(long, long)}
+     */
+    public long skipIdleTicks(long millis, long simTime) {
+        return skipIdleTicks(millis, simTime, Long.MAX_VALUE);
+    }
+
+    /**
+     * Skips idle ticks like {@link #skipIdleTicks(long, long)}, but at most the given number of them, e.g. 1 to
+     * coast through an idle stretch tick by tick when every tick has to be observed.
+     *
+     * @param millis   the number of milliseconds elapsed every tick
+     * @param simTime  the simulation time every tick advances by
+     * @param maxTicks the largest number of ticks to skip, at least 1
+     * @return the number of ticks skipped, 0 if the next tick has to be run with {@link #tick(long, long)}
+     */
+    public long skipIdleTicks(long millis, long simTime, long maxTicks) {
+        if (maxTicks <= 0) {
+            throw new IllegalArgumentException("The amount of ticks to skip must be positive.");
+        }
+
+        long skipped = Long.MAX_VALUE;
+
+        for (Robot robot : swarm) {
+            if (!robot.canCoast()) {
+                return 0;
+            }
+
+            skipped = Math.min(skipped, robot.idleTicks(millis));
+            if (skipped == 0) {
+                return 0;
+            }
+        }
+
+        if (skipped == Long.MAX_VALUE) {
+            // Nothing observable ever happens again, so there is no event to jump to.
+            return 0;
+        }
+        skipped = Math.min(skipped, maxTicks);
+
+        long idle = skipped;
+        tickEngine.forEachRange(swarm.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                swarm.get(i).coast(idle, millis, simTime);
+            }
+        });
+        tickEngine.forEachRange(swarm.size(), state::publishPositions);
+
+        ticks += skipped;
+        return skipped;
+    }
+
+    /**
+     * Retrieves how long a phase of the last timed tick took. Ticks are timed while the tick metrics are enabled
+     * or a recording has the SimulationTickEvent enabled.
+     *
+     * @param phase the phase, one run by the controller rather than the callback
+     * @return the duration, in nanoseconds
+     */
+    public long getLastPhaseNanos(TickMetrics.Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of ticks simulated so far, skipped ticks included.
+     *
+     * @return the number of ticks
+     */
+    public long getTicks() {
+        return ticks;
     }
 }
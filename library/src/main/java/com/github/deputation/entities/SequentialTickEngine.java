@@ -0,0 +1,17 @@
+package com.github.deputation.entities;
+
+/**
+ * Runs every tick phase on the calling thread, walking the swarm in order.
+ */
+public class SequentialTickEngine implements TickEngine {
+    /**
+     * Runs the task over the whole range on the calling thread.
+     *
+     * @param size the number of indices to process.
+     * @param task the task to run.
+     */
+    @Override
+    public void forEachRange(int size, RangeTask task) {
+        task.run(0, size);
+    }
+}
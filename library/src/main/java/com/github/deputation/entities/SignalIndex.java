@@ -0,0 +1,297 @@
+package com.github.deputation.entities;
+
+import java.util.*;
+
+/**
+ * Swarm-wide index from a signal label to the robots currently signaling it.
+ *
+ * Robots update the index in place when they publish a change in their signals, so its content always
+ * matches the signals other robots observe. Every label keeps a SpatialHashGrid of the published positions of
+ * its robots, refreshed once per tick, that FOLLOW queries for neighbours without looking at robots
+ * signaling other labels.
+ *
+ * Labels are bucketed by their interned id, and every bucket keeps its robots in a dense array, so that adding,
+ * removing and querying robots does not allocate once the buckets have grown to the size of the swarm.
+ */
+public class SignalIndex {
+    /**
+     * Robots signaling each label, along with the grid indexing their published positions, indexed by label id.
+     */
+    private Bucket[] buckets;
+
+    /**
+     * Cell size of the per-label grids.
+     */
+    private double cellSize;
+
+    /**
+     * Constructs an empty SignalIndex.
+     *
+     * @param cellSize the cell size of the per-label grids, ideally close to the FOLLOW distance.
+     */
+    public SignalIndex(double cellSize) {
+        buckets = new Bucket[0];
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Changes the cell size of the per-label grids, taking effect from the next refresh.
+     *
+     * @param cellSize the new cell size.
+     */
+    public void setCellSize(double cellSize) {
+        this.cellSize = cellSize;
+
+        for (Bucket bucket : buckets) {
+            if (bucket != null) {
+                bucket.grid = new SpatialHashGrid<>(cellSize);
+            }
+        }
+    }
+
+    /**
+     * Records that a robot started signaling a label.
+     *
+     * @param label the label.
+     * @param robot the robot signaling it.
+     */
+    public void add(String label, Robot robot) {
+        add(SignalLabels.intern(label), robot);
+    }
+
+    /**
+     * Records that a robot started signaling the label with the given id.
+     *
+     * @param labelId the id of the label.
+     * @param robot   the robot signaling it.
+     */
+    void add(int labelId, Robot robot) {
+        if (labelId >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, Math.max(labelId + 1, buckets.length * 2));
+        }
+
+        if (buckets[labelId] == null) {
+            buckets[labelId] = new Bucket(cellSize);
+        }
+
+        buckets[labelId].add(robot);
+    }
+
+    /**
+     * Records that a robot stopped signaling a label.
+     *
+     * @param label the label.
+     * @param robot the robot that stopped signaling it.
+     */
+    public void remove(String label, Robot robot) {
+        remove(SignalLabels.find(label), robot);
+    }
+
+    /**
+     * Records that a robot stopped signaling the label with the given id.
+     *
+     * @param labelId the id of the label.
+     * @param robot   the robot that stopped signaling it.
+     */
+    void remove(int labelId, Robot robot) {
+        Bucket bucket = bucket(labelId);
+
+        if (bucket != null) {
+            bucket.remove(robot);
+        }
+    }
+
+    /**
+     * Retrieves the robots signaling a label.
+     *
+     * @param label the label.
+     * @return an unmodifiable snapshot of the robots signaling the label.
+     */
+    public Set<Robot> getSignalingRobots(String label) {
+        Bucket bucket = bucket(SignalLabels.find(label));
+
+        if (bucket == null) {
+            return Set.of();
+        }
+
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(bucket.robots).subList(0, bucket.size)));
+    }
+
+    /**
+     * Retrieves every robot signaling at least one label.
+     *
+     * @return a list of the signaling robots, without duplicates.
+     */
+    public List<Robot> getSignalingRobots() {
+        Set<Robot> robots = new LinkedHashSet<>();
+
+        for (Bucket bucket : buckets) {
+            if (bucket != null) {
+                robots.addAll(Arrays.asList(bucket.robots).subList(0, bucket.size));
+            }
+        }
+
+        return new ArrayList<>(robots);
+    }
+
+    /**
+     * Rebuilds the grid of every label from the published positions of its robots.
+     */
+    public void refresh() {
+        for (Bucket bucket : buckets) {
+            if (bucket == null) {
+                continue;
+            }
+
+            bucket.grid.clear();
+
+            for (int i = 0; i < bucket.size; i++) {
+                Robot robot = bucket.robots[i];
+                bucket.grid.add(robot, robot.getPublishedX(), robot.getPublishedY());
+            }
+
+            bucket.grid.build();
+        }
+    }
+
+    /**
+     * Visits the robots signaling a label whose published position, as of the last refresh, is within
+     * the given radius of (x, y).
+     *
+     * @param label   the label the robots must be signaling.
+     * @param x       the x-coordinate of the query point.
+     * @param y       the y-coordinate of the query point.
+     * @param radius  the query radius.
+     * @param visitor the visitor called for every robot found.
+     */
+    public void query(String label, double x, double y, double radius, SpatialHashGrid.Visitor<? super Robot> visitor) {
+        Bucket bucket = bucket(SignalLabels.find(label));
+
+        if (bucket != null) {
+            bucket.grid.query(x, y, radius, visitor);
+        }
+    }
+
+    /**
+     * Retrieves the bucket of a label id.
+     *
+     * @param labelId the id of the label, -1 for a label that was never interned.
+     * @return the bucket, null if no robot ever signaled the label in this index.
+     */
+    private Bucket bucket(int labelId) {
+        return labelId >= 0 && labelId < buckets.length ? buckets[labelId] : null;
+    }
+
+    /**
+     * The robots signaling a label and the grid of their published positions.
+     *
+     * Robots are kept in a dense array, with an open-addressing identity table from every robot to its slot
+     * in the array so that removals are O(1): the last robot moves into the slot of the removed one.
+     */
+    private static class Bucket {
+        private Robot[] robots;
+        private int size;
+        private Robot[] keys;
+        private int[] slots;
+        private SpatialHashGrid<Robot> grid;
+
+        Bucket(double cellSize) {
+            robots = new Robot[4];
+            keys = new Robot[8];
+            slots = new int[8];
+            grid = new SpatialHashGrid<>(cellSize);
+        }
+
+        void add(Robot robot) {
+            int index = indexOf(robot);
+            if (keys[index] == robot) {
+                return;
+            }
+
+            if (size == robots.length) {
+                robots = Arrays.copyOf(robots, size * 2);
+            }
+            robots[size] = robot;
+            keys[index] = robot;
+            slots[index] = size;
+            size++;
+
+            // Keep the table at most half full so that probes stay short.
+            if (size * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+        }
+
+        void remove(Robot robot) {
+            int index = indexOf(robot);
+            if (keys[index] != robot) {
+                return;
+            }
+
+            int slot = slots[index];
+            deleteKey(index);
+
+            int last = --size;
+            if (slot != last) {
+                Robot moved = robots[last];
+                robots[slot] = moved;
+                slots[indexOf(moved)] = slot;
+            }
+            robots[last] = null;
+        }
+
+        /**
+         * Finds the table index holding a robot, or the empty index where it would be inserted.
+         */
+        private int indexOf(Robot robot) {
+            int mask = keys.length - 1;
+            int index = hash(robot) & mask;
+
+            while (keys[index] != null && keys[index] != robot) {
+                index = (index + 1) & mask;
+            }
+
+            return index;
+        }
+
+        /**
+         * Empties a table index, shifting back the following entries of its probe sequence.
+         */
+        private void deleteKey(int index) {
+            int mask = keys.length - 1;
+            int hole = index;
+            int next = (hole + 1) & mask;
+
+            while (keys[next] != null) {
+                int home = hash(keys[next]) & mask;
+
+                // Move the entry into the hole unless its home lies cyclically in (hole, next].
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+
+                next = (next + 1) & mask;
+            }
+
+            keys[hole] = null;
+        }
+
+        private void rehash(int capacity) {
+            keys = new Robot[capacity];
+            slots = new int[capacity];
+
+            for (int slot = 0; slot < size; slot++) {
+                int index = indexOf(robots[slot]);
+                keys[index] = robots[slot];
+                slots[index] = slot;
+            }
+        }
+
+        private static int hash(Robot robot) {
+            int hash = System.identityHashCode(robot) * 0x9E3779B1;
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.deputation.entities;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry interning signal labels into small dense ids, so that robots can keep their signals as bitsets
+ * and the signal index can keep its buckets in an array.
+ *
+ * Ids are shared by every robot and index in the JVM and are never reclaimed, which is fine as labels come
+ * from the handful written in the programs. Looking a label up never allocates, so it is safe on the tick path
+ * and from several threads at once.
+ */
+final class SignalLabels {
+    /**
+     * Id of every label interned so far.
+     */
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+
+    /**
+     * Label of every id, indexed by id.
+     */
+    private static volatile String[] labels = new String[0];
+
+    private SignalLabels() {
+    }
+
+    /**
+     * Returns the id of a label, interning it if it was never seen before.
+     *
+     * @param label the label.
+     * @return the id of the label.
+     */
+    static int intern(String label) {
+        Integer id = IDS.get(label);
+        return id != null ? id : register(label);
+    }
+
+    /**
+     * Returns the id of a label without interning it.
+     *
+     * @param label the label.
+     * @return the id of the label, -1 if it was never interned.
+     */
+    static int find(String label) {
+        Integer id = IDS.get(label);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the label of an id.
+     *
+     * @param id the id of the label.
+     * @return the label.
+     */
+    static String label(int id) {
+        return labels[id];
+    }
+
+    /**
+     * Returns the amount of labels interned so far, one past the largest id.
+     *
+     * @return the amount of labels.
+     */
+    static int count() {
+        return labels.length;
+    }
+
+    /**
+     * Assigns the next id to a label.
+     *
+     * @param label the label.
+     * @return the id of the label.
+     */
+    private static synchronized int register(String label) {
+        Integer id = IDS.get(label);
+        if (id != null) {
+            return id;
+        }
+
+        int next = labels.length;
+        String[] grown = Arrays.copyOf(labels, next + 1);
+        grown[next] = label;
+        labels = grown;
+        IDS.put(label, next);
+
+        return next;
+    }
+}
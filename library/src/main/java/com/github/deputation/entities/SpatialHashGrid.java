@@ -0,0 +1,276 @@
+package com.github.deputation.entities;
+
+import java.util.Arrays;
+
+/**
+ * A uniform-grid spatial hash used to answer "which items are within a radius of this point" queries
+ * without scanning every item.
+ *
+ * Items are added with their coordinates, then {@link #build()} sorts them by grid cell so that every cell's
+ * items are stored contiguously. Queries only visit the cells overlapping the query circle. The grid keeps its
+ * own copy of the coordinates, so it is a frozen view of the positions at build time and can be queried
+ * from several threads at once once built.
+ *
+ * @param <T> the type of the items stored in the grid.
+ */
+public class SpatialHashGrid<T> {
+    /**
+     * Minimum number of hash buckets.
+     */
+    private static final int MIN_BUCKETS = 16;
+
+    /**
+     * Side of a grid cell in meters.
+     */
+    private final double cellSize;
+
+    /**
+     * Number of items in the grid.
+     */
+    private int size;
+
+    /**
+     * Items and their coordinates, in insertion order until {@link #build()} sorts them by bucket.
+     */
+    private Object[] items;
+    private double[] xs, ys;
+    private int[] cellXs, cellYs;
+
+    /**
+     * Scratch arrays used while sorting items by bucket.
+     */
+    private Object[] sortedItems;
+    private double[] sortedXs, sortedYs;
+    private int[] sortedCellXs, sortedCellYs;
+
+    /**
+     * Index of the first item of every bucket, bucketStarts[b + 1] being one past its last item.
+     */
+    private int[] bucketStarts;
+
+    /**
+     * Mask turning a cell hash into a bucket index.
+     */
+    private int bucketMask;
+
+    /**
+     * Constructs an empty SpatialHashGrid.
+     *
+     * @param cellSize the side of a grid cell in meters, ideally close to the typical query radius.
+     * @throws IllegalArgumentException if the cell size is not positive.
+     */
+    public SpatialHashGrid(double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive.");
+        }
+
+        this.cellSize = cellSize;
+        items = new Object[MIN_BUCKETS];
+        xs = new double[MIN_BUCKETS];
+        ys = new double[MIN_BUCKETS];
+        cellXs = new int[MIN_BUCKETS];
+        cellYs = new int[MIN_BUCKETS];
+        sortedItems = new Object[0];
+        sortedXs = new double[0];
+        sortedYs = new double[0];
+        sortedCellXs = new int[0];
+        sortedCellYs = new int[0];
+        bucketStarts = new int[MIN_BUCKETS + 1];
+        bucketMask = MIN_BUCKETS - 1;
+    }
+
+    /**
+     * Returns the side of a grid cell.
+     *
+     * @return the cell size in meters.
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the number of items in the grid.
+     *
+     * @return the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every item from the grid, keeping the allocated storage for the next build.
+     */
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        Arrays.fill(bucketStarts, 0);
+        size = 0;
+    }
+
+    /**
+     * Adds an item to the grid. The item is only visible to queries after the next {@link #build()}.
+     *
+     * @param item the item to add.
+     * @param x    the item's x-coordinate.
+     * @param y    the item's y-coordinate.
+     */
+    public void add(T item, double x, double y) {
+        if (size == items.length) {
+            int capacity = size * 2;
+            items = Arrays.copyOf(items, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            cellXs = Arrays.copyOf(cellXs, capacity);
+            cellYs = Arrays.copyOf(cellYs, capacity);
+        }
+
+        items[size] = item;
+        xs[size] = x;
+        ys[size] = y;
+        cellXs[size] = cellOf(x);
+        cellYs[size] = cellOf(y);
+        size++;
+    }
+
+    /**
+     * Sorts the added items by bucket, making them visible to queries.
+     */
+    public void build() {
+        int buckets = Math.max(MIN_BUCKETS, Integer.highestOneBit(Math.max(1, size * 2 - 1)) << 1);
+        if (bucketStarts.length != buckets + 1) {
+            bucketStarts = new int[buckets + 1];
+        } else {
+            Arrays.fill(bucketStarts, 0);
+        }
+        bucketMask = buckets - 1;
+
+        if (sortedItems.length < items.length) {
+            sortedItems = new Object[items.length];
+            sortedXs = new double[items.length];
+            sortedYs = new double[items.length];
+            sortedCellXs = new int[items.length];
+            sortedCellYs = new int[items.length];
+        }
+
+        // Counting sort: count items per bucket, turn counts into start offsets, scatter.
+        for (int i = 0; i < size; i++) {
+            bucketStarts[bucketOf(cellXs[i], cellYs[i]) + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        for (int i = 0; i < size; i++) {
+            int b = bucketOf(cellXs[i], cellYs[i]);
+            int slot = bucketStarts[b]++;
+            sortedItems[slot] = items[i];
+            sortedXs[slot] = xs[i];
+            sortedYs[slot] = ys[i];
+            sortedCellXs[slot] = cellXs[i];
+            sortedCellYs[slot] = cellYs[i];
+        }
+        // The scatter advanced every start to the next bucket's start, shift them back.
+        System.arraycopy(bucketStarts, 0, bucketStarts, 1, buckets);
+        bucketStarts[0] = 0;
+
+        Object[] itemsSwap = items;
+        items = sortedItems;
+        sortedItems = itemsSwap;
+        double[] doubleSwap = xs;
+        xs = sortedXs;
+        sortedXs = doubleSwap;
+        doubleSwap = ys;
+        ys = sortedYs;
+        sortedYs = doubleSwap;
+        int[] intSwap = cellXs;
+        cellXs = sortedCellXs;
+        sortedCellXs = intSwap;
+        intSwap = cellYs;
+        cellYs = sortedCellYs;
+        sortedCellYs = intSwap;
+        Arrays.fill(sortedItems, 0, size, null);
+    }
+
+    /**
+     * Visits every item whose distance from (x, y) is at most the given radius.
+     *
+     * @param x       the x-coordinate of the query point.
+     * @param y       the y-coordinate of the query point.
+     * @param radius  the query radius.
+     * @param visitor the visitor called for every item within the radius.
+     */
+    public void query(double x, double y, double radius, Visitor<? super T> visitor) {
+        if (size == 0 || radius < 0) {
+            return;
+        }
+
+        int minCellX = cellOf(x - radius);
+        int maxCellX = cellOf(x + radius);
+        int minCellY = cellOf(y - radius);
+        int maxCellY = cellOf(y + radius);
+        long cells = ((long) maxCellX - minCellX + 1) * ((long) maxCellY - minCellY + 1);
+
+        // Radius much larger than the cells: walking every cell would cost more than scanning the items.
+        if (cells > size) {
+            for (int i = 0; i < size; i++) {
+                visitIfWithin(i, x, y, radius, visitor);
+            }
+            return;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int bucket = bucketOf(cellX, cellY);
+                for (int i = bucketStarts[bucket], end = bucketStarts[bucket + 1]; i < end; i++) {
+                    // Other cells may share the bucket, they are visited when their own cell comes up.
+                    if (cellXs[i] == cellX && cellYs[i] == cellY) {
+                        visitIfWithin(i, x, y, radius, visitor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the item at the given index if it lies within the radius of (x, y).
+     */
+    @SuppressWarnings("unchecked")
+    private void visitIfWithin(int i, double x, double y, double radius, Visitor<? super T> visitor) {
+        double deltaX = xs[i] - x;
+        double deltaY = ys[i] - y;
+
+        if (Math.sqrt(deltaX * deltaX + deltaY * deltaY) <= radius) {
+            visitor.visit((T) items[i], xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Computes the grid cell a coordinate falls in.
+     */
+    private int cellOf(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Hashes a cell into a bucket index.
+     */
+    private int bucketOf(int cellX, int cellY) {
+        int hash = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA6B;
+        return (hash ^ (hash >>> 16)) & bucketMask;
+    }
+
+    /**
+     * Callback receiving the items found by a query.
+     *
+     * @param <T> the type of the items.
+     */
+    @FunctionalInterface
+    public interface Visitor<T> {
+        /**
+         * Called for every item within the query radius.
+         *
+         * @param item the item.
+         * @param x    the item's x-coordinate at build time.
+         * @param y    the item's y-coordinate at build time.
+         */
+        void visit(T item, double x, double y);
+    }
+}
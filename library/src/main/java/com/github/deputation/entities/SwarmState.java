@@ -0,0 +1,720 @@
+package com.github.deputation.entities;
+
+import java.util.SplittableRandom;
+
+/**
+ * Structure-of-arrays store for the state of a swarm.
+ *
+ * Every field an Entity used to hold (position, target, heading, speed, last speed) is kept in its own
+ * column indexed by entity id, along with the position each entity published for the current tick, the state of
+ * its random source and the processor state of robots: program counter, REPEAT counters, last move, remaining
+ * CONTINUE time, whether END was executed, and the first word of the signal bitsets. Entities are thin views over
+ * a slot of the store, and the physics update of a whole range of entities runs as a tight loop over the columns.
+ *
+ * Subclasses decide where the columns live: {@link HeapSwarmState} keeps them in primitive arrays,
+ * {@link OffHeapSwarmState} in native memory outside the Java heap.
+ */
+public abstract class SwarmState {
+    /**
+     * Distance under which an entity is considered to be at its target.
+     */
+    private static final double EPSILON = 0.0001;
+
+    /**
+     * Distance under which an entity snaps to its target while moving.
+     */
+    private static final double ARRIVAL_DISTANCE = 0.1;
+
+    /**
+     * Number of entities the store holds.
+     */
+    private final int capacity;
+
+    /**
+     * Number of REPEAT counters every robot has room for.
+     */
+    private int repeatLevels;
+
+    /**
+     * Constructs a SwarmState holding the given number of entities.
+     *
+     * @param capacity The number of entities.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    protected SwarmState(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity can't be negative.");
+        }
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the number of entities the store holds.
+     *
+     * @return The capacity of the store.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Seeds the random source of every entity from a single generator, split off it as SplittableRandom.split
+     * would, without allocating a generator per entity.
+     *
+     * @param root The generator the seeds are drawn from.
+     */
+    protected void seedRandoms(SplittableRandom root) {
+        for (int id = 0; id < capacity; id++) {
+            seedRandom(id, root);
+        }
+    }
+
+    /**
+     * Seeds the random source of an entity from a generator, the way SplittableRandom.split does.
+     *
+     * @param id   The entity id.
+     * @param root The generator the seed is drawn from.
+     */
+    public void seedRandom(int id, SplittableRandom root) {
+        setRandomSeed(id, root.nextLong());
+        setRandomGamma(id, mixGamma(root.nextLong()));
+    }
+
+    /**
+     * Draws the next 64 random bits of an entity's random source, with the SplittableRandom algorithm.
+     *
+     * @param id The entity id.
+     * @return The random bits.
+     */
+    public long nextRandomLong(int id) {
+        long seed = getRandomSeed(id) + getRandomGamma(id);
+        setRandomSeed(id, seed);
+
+        seed = (seed ^ (seed >>> 30)) * 0xbf58476d1ce4e5b9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94d049bb133111ebL;
+        return seed ^ (seed >>> 31);
+    }
+
+    /**
+     * Turns random bits into an odd gamma with enough bit transitions, as SplittableRandom does.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+
+        return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    /**
+     * Returns the number of REPEAT counters every robot has room for.
+     *
+     * @return The number of counters.
+     */
+    public int getRepeatLevels() {
+        return repeatLevels;
+    }
+
+    /**
+     * Makes room for at least the given number of REPEAT counters for every robot, keeping the counters set so far.
+     * Must not run while the swarm ticks.
+     *
+     * @param levels The number of counters, the deepest REPEAT nesting of the programs run.
+     */
+    public void ensureRepeatLevels(int levels) {
+        if (levels > repeatLevels) {
+            resizeRepeatCounters(repeatLevels, levels);
+            repeatLevels = levels;
+        }
+    }
+
+    /**
+     * Reallocates the REPEAT counters for a new number of counters per robot, copying the ones set so far.
+     *
+     * @param oldLevels The number of counters every robot has room for.
+     * @param newLevels The number of counters every robot needs room for.
+     */
+    protected abstract void resizeRepeatCounters(int oldLevels, int newLevels);
+
+    /**
+     * Simulates the movement of every entity in [from, to).
+     *
+     * @param from   The first entity id, inclusive.
+     * @param to     The last entity id, exclusive.
+     * @param millis How many milliseconds to simulate the environment for.
+     */
+    public void tick(int from, int to, long millis) {
+        for (int id = from; id < to; id++) {
+            tick(id, millis);
+        }
+    }
+
+    /**
+     * Simulates the movement of a single entity.
+     *
+     * @param id     The entity id.
+     * @param millis How many milliseconds to simulate the environment for.
+     */
+    public void tick(int id, long millis) {
+        if (Math.abs(getX(id) - getTargetX(id)) < EPSILON && Math.abs(getY(id) - getTargetY(id)) < EPSILON) {
+            // stop
+            if (getSpeed(id) != 0) {
+                setLastSpeed(id, getSpeed(id));
+            }
+
+            setSpeed(id, 0);
+            return;
+        }
+
+        updateHeading(id);
+        updatePosition(id, millis);
+    }
+
+    /**
+     * Updates an entity's heading depending on its target position. The heading is kept as the unit vector
+     * towards the target, which takes a square root rather than trigonometry.
+     *
+     * @param id The entity id.
+     */
+    public void updateHeading(int id) {
+        double dx = getTargetX(id) - getX(id);
+        double dy = getTargetY(id) - getY(id);
+        double distance = Math.sqrt(dx * dx + dy * dy);
+
+        if (distance > 0) {
+            setDirectionX(id, dx / distance);
+            setDirectionY(id, dy / distance);
+        }
+    }
+
+    /**
+     * Updates an entity's position based on its speed, moving it along its heading in a single exact step.
+     *
+     * The entity arrives, stopping on its target, if it passes within the arrival distance of the target
+     * at any point of its path during the update; otherwise it moves by speed * time along its heading.
+     *
+     * @param id     The entity id.
+     * @param millis How many milliseconds to simulate time for.
+     */
+    public void updatePosition(int id, long millis) {
+        double travel = getSpeed(id) * (millis / 1000.0);
+        double directionX = getDirectionX(id);
+        double directionY = getDirectionY(id);
+        double toTargetX = getTargetX(id) - getX(id);
+        double toTargetY = getTargetY(id) - getY(id);
+
+        // Closest point to the target along the path, as a distance travelled from the current position.
+        double along = Math.max(0, Math.min(travel, toTargetX * directionX + toTargetY * directionY));
+        double missX = toTargetX - along * directionX;
+        double missY = toTargetY - along * directionY;
+
+        if (missX * missX + missY * missY < ARRIVAL_DISTANCE * ARRIVAL_DISTANCE) {
+            arrive(id);
+            return;
+        }
+
+        setX(id, getX(id) + travel * directionX);
+        setY(id, getY(id) + travel * directionY);
+    }
+
+    /**
+     * Checks whether an entity stays put however many ticks are simulated: it has no speed, and it is either on
+     * its target or too far from it to snap onto it.
+     *
+     * @param id The entity id.
+     * @return True if ticking the entity won't move it.
+     */
+    public boolean isAtRest(int id) {
+        if (getSpeed(id) != 0) {
+            return false;
+        }
+
+        double dx = getTargetX(id) - getX(id);
+        double dy = getTargetY(id) - getY(id);
+
+        return (Math.abs(dx) < EPSILON && Math.abs(dy) < EPSILON)
+                || dx * dx + dy * dy >= ARRIVAL_DISTANCE * ARRIVAL_DISTANCE;
+    }
+
+    /**
+     * Simulates several ticks at once of an entity whose target is set back to the same offset from its position
+     * after every tick, at the same speed, as it is for robots repeating their last move. The entity then moves by
+     * the same step every tick, so the ticks are solved in closed form.
+     *
+     * The target must be at the offset from the position when called; the caller sets it again afterwards.
+     *
+     * @param id      The entity id.
+     * @param ticks   How many ticks to simulate.
+     * @param millis  How many milliseconds every tick simulates.
+     * @param offsetX The x-offset of the target from the position.
+     * @param offsetY The y-offset of the target from the position.
+     */
+    public void coast(int id, long ticks, long millis, double offsetX, double offsetY) {
+        double speed = getSpeed(id);
+        double stepX = 0;
+        double stepY = 0;
+        boolean stops = true;
+
+        if (Math.abs(offsetX) >= EPSILON || Math.abs(offsetY) >= EPSILON) {
+            double distance = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
+            double travel = speed * (millis / 1000.0);
+
+            setDirectionX(id, offsetX / distance);
+            setDirectionY(id, offsetY / distance);
+
+            if (distance - Math.min(travel, distance) < ARRIVAL_DISTANCE) {
+                // Arrives every tick: the step is the whole offset.
+                stepX = offsetX;
+                stepY = offsetY;
+            } else {
+                stepX = travel * offsetX / distance;
+                stepY = travel * offsetY / distance;
+                stops = false;
+            }
+        }
+
+        if (stops && speed != 0) {
+            setLastSpeed(id, speed);
+        }
+        setX(id, getX(id) + ticks * stepX);
+        setY(id, getY(id) + ticks * stepY);
+    }
+
+    /**
+     * Safely updates an entity's coordinates (stops if the destination is reached) by a given dx and dy.
+     *
+     * @param id The entity id.
+     * @param dx How many meters to change the X axis coordinates by.
+     * @param dy How many meters to change the Y axis coordinates by.
+     */
+    public void updateCoordinates(int id, double dx, double dy) {
+        double newX = getX(id) + dx;
+        double newY = getY(id) + dy;
+        double targetX = getTargetX(id);
+        double targetY = getTargetY(id);
+
+        if (calculateDistance(newX, newY, targetX, targetY) < ARRIVAL_DISTANCE) {
+            arrive(id);
+            return;
+        }
+
+        setX(id, newX);
+        setY(id, newY);
+    }
+
+    /**
+     * Stops an entity on its target, acceptably close to it, remembering its speed.
+     *
+     * @param id The entity id.
+     */
+    private void arrive(int id) {
+        if (getSpeed(id) != 0) {
+            setLastSpeed(id, getSpeed(id));
+        }
+        setSpeed(id, 0);
+        setX(id, getTargetX(id));
+        setY(id, getTargetY(id));
+    }
+
+    /**
+     * Publishes the position of every entity in [from, to) so that others observe it during the next tick.
+     *
+     * @param from The first entity id, inclusive.
+     * @param to   The last entity id, exclusive.
+     */
+    public abstract void publishPositions(int from, int to);
+
+    /**
+     * Calculates the distance between two points (x1, y1) and (x2, y2)
+     * @param x1 X coords of the first point.
+     * @param y1 Y coords of the first point.
+     * @param x2 X coords of the second point.
+     * @param y2 Y coords of the second point.
+     * @return A double representing the distance in meters.
+     */
+    public static double calculateDistance(double x1, double y1, double x2, double y2) {
+        double deltaX = x2 - x1;
+        double deltaY = y2 - y1;
+        return Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    }
+
+    /**
+     * Returns the x-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The x-coordinate.
+     */
+    public abstract double getX(int id);
+
+    /**
+     * Sets the x-coordinate of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new x-coordinate.
+     */
+    public abstract void setX(int id, double value);
+
+    /**
+     * Returns the y-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The y-coordinate.
+     */
+    public abstract double getY(int id);
+
+    /**
+     * Sets the y-coordinate of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new y-coordinate.
+     */
+    public abstract void setY(int id, double value);
+
+    /**
+     * Returns the target x-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The target x-coordinate.
+     */
+    public abstract double getTargetX(int id);
+
+    /**
+     * Sets the target x-coordinate of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new target x-coordinate.
+     */
+    public abstract void setTargetX(int id, double value);
+
+    /**
+     * Returns the target y-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The target y-coordinate.
+     */
+    public abstract double getTargetY(int id);
+
+    /**
+     * Sets the target y-coordinate of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new target y-coordinate.
+     */
+    public abstract void setTargetY(int id, double value);
+
+    /**
+     * Returns the heading of an entity, derived from its direction.
+     *
+     * @param id The entity id.
+     * @return The heading in degrees (0 through 360).
+     */
+    public double getHeading(int id) {
+        double degrees = Math.toDegrees(Math.atan2(getDirectionY(id), getDirectionX(id)));
+        return degrees < 0 ? degrees + 360 : degrees;
+    }
+
+    /**
+     * Sets the heading of an entity, turning it into its direction.
+     *
+     * @param id    The entity id.
+     * @param value The new heading in degrees.
+     */
+    public void setHeading(int id, double value) {
+        double radians = Math.toRadians(value);
+
+        setDirectionX(id, Math.cos(radians));
+        setDirectionY(id, Math.sin(radians));
+    }
+
+    /**
+     * Returns the x-component of the unit vector an entity is heading along.
+     *
+     * @param id The entity id.
+     * @return The x-component of the direction.
+     */
+    public abstract double getDirectionX(int id);
+
+    /**
+     * Sets the x-component of the unit vector an entity is heading along.
+     *
+     * @param id    The entity id.
+     * @param value The new x-component of the direction.
+     */
+    public abstract void setDirectionX(int id, double value);
+
+    /**
+     * Returns the y-component of the unit vector an entity is heading along.
+     *
+     * @param id The entity id.
+     * @return The y-component of the direction.
+     */
+    public abstract double getDirectionY(int id);
+
+    /**
+     * Sets the y-component of the unit vector an entity is heading along.
+     *
+     * @param id    The entity id.
+     * @param value The new y-component of the direction.
+     */
+    public abstract void setDirectionY(int id, double value);
+
+    /**
+     * Returns the speed of an entity.
+     *
+     * @param id The entity id.
+     * @return The speed.
+     */
+    public abstract double getSpeed(int id);
+
+    /**
+     * Sets the speed of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new speed.
+     */
+    public abstract void setSpeed(int id, double value);
+
+    /**
+     * Returns the speed before the last stop of an entity.
+     *
+     * @param id The entity id.
+     * @return The speed before the last stop.
+     */
+    public abstract double getLastSpeed(int id);
+
+    /**
+     * Sets the speed before the last stop of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new speed before the last stop.
+     */
+    public abstract void setLastSpeed(int id, double value);
+
+    /**
+     * Returns the published x-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The published x-coordinate.
+     */
+    public abstract double getPublishedX(int id);
+
+    /**
+     * Returns the published y-coordinate of an entity.
+     *
+     * @param id The entity id.
+     * @return The published y-coordinate.
+     */
+    public abstract double getPublishedY(int id);
+
+    /**
+     * Returns how long a robot still has to keep executing CONTINUE for.
+     *
+     * @param id The robot id.
+     * @return The remaining milliseconds.
+     */
+    public abstract long getContinuingMillis(int id);
+
+    /**
+     * Sets how long a robot still has to keep executing CONTINUE for.
+     *
+     * @param id    The robot id.
+     * @param value The remaining milliseconds.
+     */
+    public abstract void setContinuingMillis(int id, long value);
+
+    /**
+     * Checks whether a robot executed the END instruction of its program.
+     *
+     * @param id The robot id.
+     * @return True if the robot is done.
+     */
+    public abstract boolean isDone(int id);
+
+    /**
+     * Sets whether a robot executed the END instruction of its program.
+     *
+     * @param id    The robot id.
+     * @param value True if the robot is done.
+     */
+    public abstract void setDone(int id, boolean value);
+
+    /**
+     * Returns the state of the random source of an entity, advanced by its gamma at every draw.
+     *
+     * @param id The entity id.
+     * @return The seed.
+     */
+    public abstract long getRandomSeed(int id);
+
+    /**
+     * Sets the state of the random source of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new seed.
+     */
+    public abstract void setRandomSeed(int id, long value);
+
+    /**
+     * Returns the odd increment of the random source of an entity.
+     *
+     * @param id The entity id.
+     * @return The gamma.
+     */
+    public abstract long getRandomGamma(int id);
+
+    /**
+     * Sets the odd increment of the random source of an entity.
+     *
+     * @param id    The entity id.
+     * @param value The new gamma, which must be odd.
+     */
+    public abstract void setRandomGamma(int id, long value);
+
+    /**
+     * Returns the index of the next opcode a robot executes.
+     *
+     * @param id The robot id.
+     * @return The program counter.
+     */
+    public abstract int getProgramCounter(int id);
+
+    /**
+     * Sets the index of the next opcode a robot executes.
+     *
+     * @param id    The robot id.
+     * @param value The new program counter.
+     */
+    public abstract void setProgramCounter(int id, int value);
+
+    /**
+     * Returns the number of REPEAT loops a robot's program counter is in.
+     *
+     * @param id The robot id.
+     * @return The REPEAT depth.
+     */
+    public abstract int getRepeatDepth(int id);
+
+    /**
+     * Sets the number of REPEAT loops a robot's program counter is in.
+     *
+     * @param id    The robot id.
+     * @param value The new REPEAT depth.
+     */
+    public abstract void setRepeatDepth(int id, int value);
+
+    /**
+     * Returns the iterations a robot has left of one of the REPEAT loops it is in.
+     *
+     * @param id    The robot id.
+     * @param level The loop, 0 for the outermost one, below {@link #getRepeatLevels()}.
+     * @return The iterations left.
+     */
+    public abstract int getRepeatCounter(int id, int level);
+
+    /**
+     * Sets the iterations a robot has left of one of the REPEAT loops it is in.
+     *
+     * @param id    The robot id.
+     * @param level The loop, 0 for the outermost one, below {@link #getRepeatLevels()}.
+     * @param value The new iterations left.
+     */
+    public abstract void setRepeatCounter(int id, int level, int value);
+
+    /**
+     * Checks whether a robot has a last move that it keeps repeating.
+     *
+     * @param id The robot id.
+     * @return True if the robot has a last move.
+     */
+    public abstract boolean hasLastMove(int id);
+
+    /**
+     * Forgets the last move of a robot.
+     *
+     * @param id The robot id.
+     */
+    public abstract void clearLastMove(int id);
+
+    /**
+     * Sets the last move of a robot.
+     *
+     * @param id    The robot id.
+     * @param x     The relative x-coordinate of the move.
+     * @param y     The relative y-coordinate of the move.
+     * @param speed The speed of the move.
+     */
+    public abstract void setLastMove(int id, double x, double y, double speed);
+
+    /**
+     * Returns the relative x-coordinate of the last move of a robot.
+     *
+     * @param id The robot id.
+     * @return The relative x-coordinate.
+     */
+    public abstract double getLastMoveX(int id);
+
+    /**
+     * Returns the relative y-coordinate of the last move of a robot.
+     *
+     * @param id The robot id.
+     * @return The relative y-coordinate.
+     */
+    public abstract double getLastMoveY(int id);
+
+    /**
+     * Returns the speed of the last move of a robot.
+     *
+     * @param id The robot id.
+     * @return The speed.
+     */
+    public abstract double getLastMoveSpeed(int id);
+
+    /**
+     * Returns the first word of the bitset of the signals of a robot, bit i standing for the label with id i.
+     *
+     * @param id The robot id.
+     * @return The signal word.
+     */
+    public abstract long getSignals(int id);
+
+    /**
+     * Sets the first word of the bitset of the signals of a robot.
+     *
+     * @param id    The robot id.
+     * @param value The new signal word.
+     */
+    public abstract void setSignals(int id, long value);
+
+    /**
+     * Returns the first word of the bitset of the signals other robots observe on a robot.
+     *
+     * @param id The robot id.
+     * @return The published signal word.
+     */
+    public abstract long getPublishedSignals(int id);
+
+    /**
+     * Sets the first word of the bitset of the signals other robots observe on a robot.
+     *
+     * @param id    The robot id.
+     * @param value The new published signal word.
+     */
+    public abstract void setPublishedSignals(int id, long value);
+
+    /**
+     * Checks whether the signals of a robot changed since they were last published.
+     *
+     * @param id The robot id.
+     * @return True if there are signal changes to publish.
+     */
+    public abstract boolean isSignalsChanged(int id);
+
+    /**
+     * Sets whether the signals of a robot changed since they were last published.
+     *
+     * @param id    The robot id.
+     * @param value True if there are signal changes to publish.
+     */
+    public abstract void setSignalsChanged(int id, boolean value);
+}
@@ -0,0 +1,34 @@
+package com.github.deputation.entities;
+
+/**
+ * A TickEngine decides how the work of a swarm tick is spread across threads.
+ *
+ * The RobotController splits every tick into phases (a read phase where robots compute their next state
+ * from a frozen view of the swarm, and a commit phase that publishes it) and hands each phase to the engine
+ * as a task over a range of robot indices. Since robots never observe each other's state mid-phase,
+ * every engine produces the same results.
+ */
+public interface TickEngine {
+    /**
+     * Runs the given task over the index range [0, size), possibly split into smaller sub-ranges.
+     * Returns once every index has been processed.
+     *
+     * @param size the number of indices to process.
+     * @param task the task to run over each sub-range.
+     */
+    void forEachRange(int size, RangeTask task);
+
+    /**
+     * A unit of work over a contiguous range of robot indices.
+     */
+    @FunctionalInterface
+    interface RangeTask {
+        /**
+         * Processes the indices in [from, to).
+         *
+         * @param from the first index to process, inclusive.
+         * @param to   the last index to process, exclusive.
+         */
+        void run(int from, int to);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.deputation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event spanning the processor tick of a sampled robot, with the opcode it executed.
+ *
+ * Only one robot in every {@link #SAMPLING_INTERVAL} is sampled every tick, rotating through the swarm, so that
+ * large swarms don't flood the recording. Disabled by default, enable it in a custom recording settings file or with
+ * {@code Recording.enable(InstructionExecutionEvent.class)}.
+ */
+@Name("com.github.deputation.InstructionExecution")
+@Label("Instruction Execution")
+@Description("The processor tick of a sampled robot")
+@Category({"RobotSpace", "Processor"})
+@StackTrace(false)
+@Enabled(false)
+public class InstructionExecutionEvent extends Event {
+    /**
+     * Amount of robots every sampled robot stands for.
+     */
+    public static final int SAMPLING_INTERVAL = 1024;
+
+    /**
+     * The type of the event, checked once per tick before sampling robots.
+     */
+    private static final EventType TYPE = EventType.getEventType(InstructionExecutionEvent.class);
+
+    @Label("Robot")
+    @Description("Slot of the robot in the swarm")
+    public int robot;
+
+    @Label("Opcode")
+    @Description("Opcode that took up the tick, missing if the robot was done or executing CONTINUE")
+    public String opcode;
+
+    /**
+     * Checks whether any running recording has the event enabled.
+     *
+     * @return True if instructions are being sampled.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+}
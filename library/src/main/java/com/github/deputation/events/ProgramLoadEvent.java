@@ -0,0 +1,30 @@
+package com.github.deputation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning the programming of a swarm with a compiled program.
+ */
+@Name("com.github.deputation.ProgramLoad")
+@Label("Program Load")
+@Description("A swarm being programmed with a compiled program")
+@Category({"RobotSpace", "Simulation"})
+public class ProgramLoadEvent extends Event {
+    @Label("Robots")
+    public int robots;
+
+    @Label("Instructions")
+    @Description("Amount of top-level instructions of the program")
+    public int instructions;
+
+    @Label("Bytecode Length")
+    @Description("Amount of ints of the compiled bytecode, opcodes and operands")
+    public int bytecodeLength;
+
+    @Label("Max Repeat Depth")
+    public int maxRepeatDepth;
+}
@@ -0,0 +1,67 @@
+package com.github.deputation.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event spanning a tick of a simulation, from the swarm tick to the end of the action run after it,
+ * with the time spent in every phase. Enabled by default, so the always-on recording catches slow ticks and lines
+ * them up with GC and safepoints.
+ */
+@Name("com.github.deputation.SimulationTick")
+@Label("Simulation Tick")
+@Description("A tick of the swarm, with the time spent in every phase")
+@Category({"RobotSpace", "Simulation"})
+@StackTrace(false)
+public class SimulationTickEvent extends Event {
+    /**
+     * The type of the event, checked before timing phases for it.
+     */
+    private static final EventType TYPE = EventType.getEventType(SimulationTickEvent.class);
+
+    @Label("Tick")
+    @Description("Number of the tick, skipped ticks included")
+    public long tick;
+
+    @Label("Robots")
+    public int robots;
+
+    @Label("Skipped Ticks")
+    @Description("Idle ticks jumped over instead of being simulated, the phases are then not run")
+    public long skippedTicks;
+
+    @Label("Sensor Update")
+    @Timespan(Timespan.NANOSECONDS)
+    public long sensorUpdate;
+
+    @Label("Physics")
+    @Timespan(Timespan.NANOSECONDS)
+    public long physics;
+
+    @Label("Processor")
+    @Timespan(Timespan.NANOSECONDS)
+    public long processor;
+
+    @Label("Publish")
+    @Timespan(Timespan.NANOSECONDS)
+    public long publish;
+
+    @Label("Callback")
+    @Timespan(Timespan.NANOSECONDS)
+    public long callback;
+
+    /**
+     * Checks whether any running recording has the event enabled.
+     *
+     * @return True if ticks are being recorded.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+}
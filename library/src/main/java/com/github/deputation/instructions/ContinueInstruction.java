@@ -37,4 +37,14 @@ public class ContinueInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "CONTINUE";
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the opcode of this ContinueInstruction.
+     *
+     * @return The opcode, which is CONTINUE.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.CONTINUE;
+    }
+}
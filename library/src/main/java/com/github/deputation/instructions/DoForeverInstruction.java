@@ -1,5 +1,6 @@
 package com.github.deputation.instructions;
 
+import com.github.deputation.RobotExecutionException;
 import com.github.deputation.language.RobotContext;
 
 import java.util.List;
@@ -20,14 +21,23 @@ public class DoForeverInstruction implements RobotInstruction {
     }
 
     /**
-     * Executes the DoForeverInstruction by invoking the `DoForever` method on the provided RobotContext,
-     * passing the list of instructions.
+     * Retrieves the instructions executed forever.
      *
-     * @param context The RobotContext on which the DoForever method should be invoked.
+     * @return The body of the loop.
+     */
+    public List<RobotInstruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Loops are lowered to jumps by the ProgramCompiler and never executed as instructions.
+     *
+     * @param context The RobotContext the instruction would be executed on.
+     * @throws RobotExecutionException always, as DO FOREVER must be compiled.
      */
     @Override
-    public void execute(RobotContext context) {
-        context.DoForever(instructions);
+    public void execute(RobotContext context) throws RobotExecutionException {
+        throw new RobotExecutionException("DO FOREVER can't be executed directly, compile the program instead.");
     }
 
     /**
@@ -39,4 +49,14 @@ public class DoForeverInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "DOFOREVER";
     }
+
+    /**
+     * Retrieves the opcode of this DoForeverInstruction.
+     *
+     * @return The opcode, which is DO_FOREVER.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.DO_FOREVER;
+    }
 }
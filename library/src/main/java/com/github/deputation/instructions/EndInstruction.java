@@ -22,4 +22,14 @@ public class EndInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "END";
     }
+
+    /**
+     * Retrieves the opcode of this EndInstruction.
+     *
+     * @return The opcode, which is END.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.END;
+    }
 }
@@ -24,6 +24,24 @@ public class FollowInstruction implements RobotInstruction {
         this.parameters = parameters;
     }
 
+    /**
+     * Retrieves the label to follow.
+     *
+     * @return The label to follow.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Retrieves the follow parameters: the distance robots are looked for within and the speed.
+     *
+     * @return The follow parameters.
+     */
+    public double[] getParameters() {
+        return parameters;
+    }
+
     /**
      * Executes the FollowInstruction by invoking the `Follow` method on the provided RobotContext,
      * passing the label and parameters.
@@ -44,4 +62,14 @@ public class FollowInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "FOLLOW";
     }
+
+    /**
+     * Retrieves the opcode of this FollowInstruction.
+     *
+     * @return The opcode, which is FOLLOW.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.FOLLOW;
+    }
 }
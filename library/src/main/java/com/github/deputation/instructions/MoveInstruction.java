@@ -53,4 +53,14 @@ public class MoveInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "MOVE";
     }
+
+    /**
+     * Retrieves the opcode of this MoveInstruction.
+     *
+     * @return The opcode, which is MOVE.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.MOVE;
+    }
 }
@@ -2,17 +2,13 @@ package com.github.deputation.instructions;
 
 import com.github.deputation.language.RobotContext;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class MoveRandomInstruction implements RobotInstruction {
     /**
      * Move random instruction parameters.
      */
     private final double x1, y1, x2, y2, speed;
-    /**
-     * Random engine for extracting random data.
-     */
-    private static final Random rand = new Random();
 
     /**
      * Constructs a new MoveRandomInstruction with the specified arguments.
@@ -28,37 +24,48 @@ public class MoveRandomInstruction implements RobotInstruction {
     }
 
     /**
-     * Executes the MoveRandomInstruction by generating random target coordinates within the specified range
-     * and invoking the `Move` method on the provided RobotContext, passing the target coordinates and speed.
+     * Executes the MoveRandomInstruction by generating random target coordinates within the specified range,
+     * drawn from the robot's own random source, and invoking the `Move` method on the provided RobotContext, passing the target coordinates and speed.
      *
      * @param context The RobotContext on which the Move method should be invoked.
      */
     @Override
     public void execute(RobotContext context) {
-        double targetX = getRandomCoordinate(x1, x2);
-        double targetY = getRandomCoordinate(y1, y2);
-        double[] arr = { targetX, targetY };
-        context.Move(arr, speed);
+        RandomGenerator random = context.getRandom();
+        double targetX = getRandomCoordinate(random, x1, x2);
+        double targetY = getRandomCoordinate(random, y1, y2);
+        context.Move(targetX, targetY, speed);
     }
 
     /**
      * Generates a random coordinate within the specified range.
      *
+     * @param random The random source to draw from.
      * @param min The minimum value of the coordinate range.
      * @param max The maximum value of the coordinate range.
      * @return A random coordinate within the specified range.
      */
-    private double getRandomCoordinate(double min, double max) {
-        return min + (max - min) * rand.nextDouble();
+    private double getRandomCoordinate(RandomGenerator random, double min, double max) {
+        return min + (max - min) * random.nextDouble();
     }
 
     /**
      * Retrieves the instruction type of this MoveRandomInstruction.
      *
-     * @return The instruction type, which is "MOVE".
+     * @return The instruction type, which is "MOVE_RANDOM".
      */
     @Override
     public String getInstructionType() {
-        return "MOVE";
+        return "MOVE_RANDOM";
+    }
+
+    /**
+     * Retrieves the opcode of this MoveRandomInstruction.
+     *
+     * @return The opcode, which is MOVE_RANDOM.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.MOVE_RANDOM;
     }
 }
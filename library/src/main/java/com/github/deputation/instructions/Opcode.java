@@ -0,0 +1,24 @@
+package com.github.deputation.instructions;
+
+/**
+ * Compact identifier of the kind of a RobotInstruction, used to dispatch on instructions with a switch
+ * the JIT can compile into a jump table rather than by comparing instruction type strings.
+ *
+ * Opcodes name the kinds of instructions a program is made of, loops included as a whole. The int opcodes of
+ * {@link com.github.deputation.language.Bytecode} are a separate vocabulary because compiling splits every loop
+ * into an opening and a closing opcode; its leaf opcodes are numbered like the ordinal of the Opcode they are
+ * compiled from.
+ */
+public enum Opcode {
+    MOVE,
+    MOVE_RANDOM,
+    SIGNAL,
+    UNSIGNAL,
+    FOLLOW,
+    STOP,
+    CONTINUE,
+    REPEAT,
+    UNTIL,
+    DO_FOREVER,
+    END
+}
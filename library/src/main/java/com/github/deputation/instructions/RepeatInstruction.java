@@ -27,14 +27,32 @@ public class RepeatInstruction implements RobotInstruction {
     }
 
     /**
-     * Executes the RepeatInstruction by invoking the `Repeat` method on the provided RobotContext,
-     * passing the number of times and the list of instructions.
+     * Retrieves the amount of times the instructions are repeated.
      *
-     * @param context The RobotContext on which the Repeat method should be invoked.
+     * @return The amount of repetitions.
+     */
+    public int getTimes() {
+        return times;
+    }
+
+    /**
+     * Retrieves the instructions that are repeated.
+     *
+     * @return The body of the loop.
+     */
+    public List<RobotInstruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Loops are lowered to jumps by the ProgramCompiler and never executed as instructions.
+     *
+     * @param context The RobotContext the instruction would be executed on.
+     * @throws RobotExecutionException always, as REPEAT must be compiled.
      */
     @Override
     public void execute(RobotContext context) throws RobotExecutionException {
-        context.Repeat(times, instructions);
+        throw new RobotExecutionException("REPEAT can't be executed directly, compile the program instead.");
     }
 
     /**
@@ -46,4 +64,14 @@ public class RepeatInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "REPEAT";
     }
+
+    /**
+     * Retrieves the opcode of this RepeatInstruction.
+     *
+     * @return The opcode, which is REPEAT.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.REPEAT;
+    }
 }
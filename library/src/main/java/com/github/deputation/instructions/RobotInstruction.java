@@ -18,4 +18,11 @@ public interface RobotInstruction {
      * @return The instruction type as a string.
      */
     String getInstructionType();
+
+    /**
+     * Retrieves the opcode of the instruction, which unlike the instruction type tells MOVE RANDOM apart from MOVE.
+     *
+     * @return The opcode.
+     */
+    Opcode getOpcode();
 }
@@ -37,4 +37,14 @@ public class SignalInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "SIGNAL";
     }
+
+    /**
+     * Retrieves the opcode of this SignalInstruction.
+     *
+     * @return The opcode, which is SIGNAL.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.SIGNAL;
+    }
 }
@@ -22,4 +22,14 @@ public class StopInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "STOP";
     }
+
+    /**
+     * Retrieves the opcode of this StopInstruction.
+     *
+     * @return The opcode, which is STOP.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.STOP;
+    }
 }
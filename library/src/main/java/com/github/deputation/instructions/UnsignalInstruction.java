@@ -38,4 +38,14 @@ public class UnsignalInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "UNSIGNAL";
     }
+
+    /**
+     * Retrieves the opcode of this UnsignalInstruction.
+     *
+     * @return The opcode, which is UNSIGNAL.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.UNSIGNAL;
+    }
 }
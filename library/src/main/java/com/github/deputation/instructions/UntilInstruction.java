@@ -1,5 +1,6 @@
 package com.github.deputation.instructions;
 
+import com.github.deputation.RobotExecutionException;
 import com.github.deputation.language.RobotContext;
 
 import java.util.List;
@@ -26,14 +27,32 @@ public class UntilInstruction implements RobotInstruction {
     }
 
     /**
-     * Executes the UntilInstruction by invoking the `Until` method on the provided RobotContext,
-     * passing the label and the list of instructions.
+     * Retrieves the label that ends the loop.
      *
-     * @param context The RobotContext on which the Until method should be invoked.
+     * @return The label to check for.
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Retrieves the instructions executed until the label is reached.
+     *
+     * @return The body of the loop.
+     */
+    public List<RobotInstruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Loops are lowered to jumps by the ProgramCompiler and never executed as instructions.
+     *
+     * @param context The RobotContext the instruction would be executed on.
+     * @throws RobotExecutionException always, as UNTIL must be compiled.
      */
     @Override
-    public void execute(RobotContext context) {
-        context.Until(label, instructions);
+    public void execute(RobotContext context) throws RobotExecutionException {
+        throw new RobotExecutionException("UNTIL can't be executed directly, compile the program instead.");
     }
 
     /**
@@ -45,4 +64,14 @@ public class UntilInstruction implements RobotInstruction {
     public String getInstructionType() {
         return "UNTIL";
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the opcode of this UntilInstruction.
+     *
+     * @return The opcode, which is UNTIL.
+     */
+    @Override
+    public Opcode getOpcode() {
+        return Opcode.UNTIL;
+    }
+}
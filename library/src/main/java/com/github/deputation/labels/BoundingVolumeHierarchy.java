@@ -0,0 +1,318 @@
+package com.github.deputation.labels;
+
+import java.util.Arrays;
+
+/**
+ * Shape index keeping the bounding boxes of the shapes in a binary tree of boxes, so that a lookup only tests the
+ * shapes whose box contains the point instead of every shape.
+ *
+ * The tree is built top-down by splitting the shapes at the median of their box centers along the longer axis,
+ * and stored in flat arrays. Every node remembers the first declared shape below it, which lets lookups visit
+ * the subtree holding the earlier shapes first and skip any subtree that can't beat the best match found so far:
+ * the first-match semantics of the environment come at no extra cost. Shapes without finite bounds are kept
+ * aside and tested linearly.
+ */
+class BoundingVolumeHierarchy implements ShapeIndex {
+    /**
+     * Most shapes a leaf holds.
+     */
+    private static final int LEAF_SIZE = 4;
+
+    /**
+     * The shapes, in declaration order.
+     */
+    private final Shape[] shapes;
+
+    /**
+     * Bounding box of every shape, indexed by declaration order and padded against rounding in isInside.
+     */
+    private final double[] shapeMinX, shapeMinY, shapeMaxX, shapeMaxY;
+
+    /**
+     * Shapes without finite bounds, in declaration order.
+     */
+    private final int[] unbounded;
+
+    /**
+     * Shapes with finite bounds, grouped by leaf and in declaration order within every leaf.
+     */
+    private final int[] order;
+
+    /**
+     * Bounding box of every node.
+     */
+    private final double[] nodeMinX, nodeMinY, nodeMaxX, nodeMaxY;
+
+    /**
+     * First shape of a leaf in the order, or the left child of an inner node.
+     */
+    private final int[] nodeFirst;
+
+    /**
+     * Amount of shapes of a leaf, 0 for inner nodes.
+     */
+    private final int[] nodeCount;
+
+    /**
+     * Right child of an inner node.
+     */
+    private final int[] nodeRight;
+
+    /**
+     * First declared shape below every node.
+     */
+    private final int[] nodeFirstShape;
+
+    /**
+     * Amount of nodes built so far.
+     */
+    private int nodes;
+
+    /**
+     * Builds a BoundingVolumeHierarchy over the given shapes.
+     *
+     * @param shapes the shapes, in declaration order
+     */
+    BoundingVolumeHierarchy(Shape[] shapes) {
+        this.shapes = shapes;
+
+        int count = shapes.length;
+        shapeMinX = new double[count];
+        shapeMinY = new double[count];
+        shapeMaxX = new double[count];
+        shapeMaxY = new double[count];
+
+        int bounded = 0;
+        for (int i = 0; i < count; i++) {
+            Shape shape = shapes[i];
+            double padX = padding(shape.getMinX(), shape.getMaxX());
+            double padY = padding(shape.getMinY(), shape.getMaxY());
+            shapeMinX[i] = shape.getMinX() - padX;
+            shapeMinY[i] = shape.getMinY() - padY;
+            shapeMaxX[i] = shape.getMaxX() + padX;
+            shapeMaxY[i] = shape.getMaxY() + padY;
+
+            if (isBounded(i)) {
+                bounded++;
+            }
+        }
+
+        order = new int[bounded];
+        unbounded = new int[count - bounded];
+        for (int i = 0, b = 0, u = 0; i < count; i++) {
+            if (isBounded(i)) {
+                order[b++] = i;
+            } else {
+                unbounded[u++] = i;
+            }
+        }
+
+        int maxNodes = Math.max(1, 2 * bounded - 1);
+        nodeMinX = new double[maxNodes];
+        nodeMinY = new double[maxNodes];
+        nodeMaxX = new double[maxNodes];
+        nodeMaxY = new double[maxNodes];
+        nodeFirst = new int[maxNodes];
+        nodeCount = new int[maxNodes];
+        nodeRight = new int[maxNodes];
+        nodeFirstShape = new int[maxNodes];
+
+        if (bounded > 0) {
+            double[] centerX = new double[count];
+            double[] centerY = new double[count];
+            for (int i : order) {
+                centerX[i] = (shapeMinX[i] + shapeMaxX[i]) / 2;
+                centerY[i] = (shapeMinY[i] + shapeMaxY[i]) / 2;
+            }
+
+            build(0, bounded, centerX, centerY);
+        }
+    }
+
+    @Override
+    public int find(double x, double y) {
+        int best = Integer.MAX_VALUE;
+
+        for (int i : unbounded) {
+            if (shapes[i].isInside(x, y)) {
+                best = i;
+                break;
+            }
+        }
+
+        if (nodes > 0) {
+            best = search(0, x, y, best);
+        }
+
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    /**
+     * Looks for a shape declared before the best match so far containing a point, below a node.
+     *
+     * @param node the node to search
+     * @param x    the x-coordinate of the point
+     * @param y    the y-coordinate of the point
+     * @param best the best match so far, Integer.MAX_VALUE if none
+     * @return the best match after searching the node
+     */
+    private int search(int node, double x, double y, int best) {
+        if (nodeFirstShape[node] >= best
+                || x < nodeMinX[node] || x > nodeMaxX[node] || y < nodeMinY[node] || y > nodeMaxY[node]) {
+            return best;
+        }
+
+        if (nodeCount[node] > 0) {
+            int end = nodeFirst[node] + nodeCount[node];
+
+            for (int i = nodeFirst[node]; i < end; i++) {
+                int shape = order[i];
+
+                if (shape >= best) {
+                    break;
+                }
+                if (x >= shapeMinX[shape] && x <= shapeMaxX[shape] && y >= shapeMinY[shape] && y <= shapeMaxY[shape]
+                        && shapes[shape].isInside(x, y)) {
+                    return shape;
+                }
+            }
+
+            return best;
+        }
+
+        int first = nodeFirst[node];
+        int second = nodeRight[node];
+        if (nodeFirstShape[second] < nodeFirstShape[first]) {
+            first = nodeRight[node];
+            second = nodeFirst[node];
+        }
+
+        best = search(first, x, y, best);
+        return search(second, x, y, best);
+    }
+
+    /**
+     * Builds the subtree over a range of the order.
+     *
+     * @param from    the first position of the range
+     * @param to      the position past the end of the range
+     * @param centerX the x-coordinate of the box center of every shape
+     * @param centerY the y-coordinate of the box center of every shape
+     * @return the root of the subtree
+     */
+    private int build(int from, int to, double[] centerX, double[] centerY) {
+        int node = nodes++;
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        double minCenterX = Double.POSITIVE_INFINITY, minCenterY = Double.POSITIVE_INFINITY;
+        double maxCenterX = Double.NEGATIVE_INFINITY, maxCenterY = Double.NEGATIVE_INFINITY;
+        int firstShape = Integer.MAX_VALUE;
+
+        for (int i = from; i < to; i++) {
+            int shape = order[i];
+            minX = Math.min(minX, shapeMinX[shape]);
+            minY = Math.min(minY, shapeMinY[shape]);
+            maxX = Math.max(maxX, shapeMaxX[shape]);
+            maxY = Math.max(maxY, shapeMaxY[shape]);
+            minCenterX = Math.min(minCenterX, centerX[shape]);
+            minCenterY = Math.min(minCenterY, centerY[shape]);
+            maxCenterX = Math.max(maxCenterX, centerX[shape]);
+            maxCenterY = Math.max(maxCenterY, centerY[shape]);
+            firstShape = Math.min(firstShape, shape);
+        }
+
+        nodeMinX[node] = minX;
+        nodeMinY[node] = minY;
+        nodeMaxX[node] = maxX;
+        nodeMaxY[node] = maxY;
+        nodeFirstShape[node] = firstShape;
+
+        if (to - from <= LEAF_SIZE) {
+            Arrays.sort(order, from, to);
+            nodeFirst[node] = from;
+            nodeCount[node] = to - from;
+            return node;
+        }
+
+        // Shapes sharing the same center can't be told apart, any split of them is as good as another.
+        int middle = (from + to) >>> 1;
+        double[] keys = maxCenterX - minCenterX >= maxCenterY - minCenterY ? centerX : centerY;
+        select(from, to, middle, keys);
+
+        nodeFirst[node] = build(from, middle, centerX, centerY);
+        nodeRight[node] = build(middle, to, centerX, centerY);
+        nodeCount[node] = 0;
+
+        return node;
+    }
+
+    /**
+     * Partially sorts a range of the order so that the shape at a position is the one a full sort by key would
+     * put there, with no larger key before it and no smaller key after it.
+     *
+     * @param from the first position of the range
+     * @param to   the position past the end of the range
+     * @param nth  the position to settle
+     * @param keys the key of every shape
+     */
+    private void select(int from, int to, int nth, double[] keys) {
+        int low = from;
+        int high = to - 1;
+
+        while (low < high) {
+            double pivot = keys[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i++;
+                }
+                while (keys[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+
+            if (nth <= j) {
+                high = j;
+            } else if (nth >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a shape has a finite bounding box.
+     *
+     * @param shape the position of the shape in declaration order
+     * @return true if the box is finite
+     */
+    private boolean isBounded(int shape) {
+        return Double.isFinite(shapeMinX[shape]) && Double.isFinite(shapeMinY[shape])
+                && Double.isFinite(shapeMaxX[shape]) && Double.isFinite(shapeMaxY[shape]);
+    }
+
+    /**
+     * Computes how much to widen a box along an axis so that points isInside accepts after rounding are never
+     * culled by the box: a few ulps of the largest coordinate of the box, as isInside rounds at that magnitude.
+     *
+     * @param min the lower bound along the axis
+     * @param max the upper bound along the axis
+     * @return the padding, 0 if a bound is not finite
+     */
+    private static double padding(double min, double max) {
+        if (!Double.isFinite(min) || !Double.isFinite(max)) {
+            return 0;
+        }
+
+        return 16 * Math.ulp(Math.max(Math.abs(min), Math.abs(max)));
+    }
+}
@@ -1,6 +1,6 @@
 package com.github.deputation.labels;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a circle shape.
@@ -86,6 +86,46 @@ public class Circle implements Shape {
         return r;
     }
 
+    /**
+     * Retrieves the smallest X-coordinate of the circle's bounding box.
+     *
+     * @return The smallest X-coordinate.
+     */
+    @Override
+    public double getMinX() {
+        return x - r;
+    }
+
+    /**
+     * Retrieves the smallest Y-coordinate of the circle's bounding box.
+     *
+     * @return The smallest Y-coordinate.
+     */
+    @Override
+    public double getMinY() {
+        return y - r;
+    }
+
+    /**
+     * Retrieves the largest X-coordinate of the circle's bounding box.
+     *
+     * @return The largest X-coordinate.
+     */
+    @Override
+    public double getMaxX() {
+        return x + r;
+    }
+
+    /**
+     * Retrieves the largest Y-coordinate of the circle's bounding box.
+     *
+     * @return The largest Y-coordinate.
+     */
+    @Override
+    public double getMaxY() {
+        return y + r;
+    }
+
     /**
      * Checks if the specified coordinates are inside the circle.
      *
@@ -99,11 +139,11 @@ public class Circle implements Shape {
     }
 
     /**
+     * @param random The random source to draw from.
      * @return A random pair of coordinates inside the Shape.
      */
     @Override
-    public double[] getCoordsInside() {
-        Random random = new Random();
+    public double[] getCoordsInside(RandomGenerator random) {
         double angle = random.nextDouble() * 2 * Math.PI;
         double distance = random.nextDouble() * r;
         double xInside = x + distance * Math.cos(angle);
@@ -0,0 +1,162 @@
+package com.github.deputation.labels;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The labelled shapes of the space the swarm moves in, built once per environment and shared by every entity.
+ *
+ * The Environment is immutable, so a single instance can be referenced by the whole swarm and queried from
+ * several threads at once. Shapes may overlap: the label of a point is the label of the first shape, in
+ * declaration order, containing it.
+ *
+ * Label lookups go through a spatial index picked by the {@link IndexMode} and built along with the environment.
+ */
+public final class Environment {
+    /**
+     * The environment without shapes.
+     */
+    public static final Environment EMPTY = new Environment(List.of(), IndexMode.LINEAR);
+
+    /**
+     * The shapes of the environment, in declaration order.
+     */
+    private final List<Shape> shapes;
+
+    /**
+     * The shapes of the environment, in declaration order, as indexed by the shape index.
+     */
+    private final Shape[] shapeArray;
+
+    /**
+     * The index answering label lookups.
+     */
+    private final ShapeIndex index;
+
+    /**
+     * The kind of index answering label lookups.
+     */
+    private final IndexMode indexMode;
+
+    /**
+     * The spatial indexes an Environment can answer label lookups with. They all give the same answers.
+     */
+    public enum IndexMode {
+        /**
+         * Tests every shape in declaration order, best for a handful of shapes.
+         */
+        LINEAR,
+        /**
+         * Looks shapes up in a bounding-volume hierarchy over their bounding boxes, best for many shapes.
+         */
+        BVH,
+        /**
+         * Looks shapes up in a raster grid precomputed over the environment, answering most lookups with a single
+         * array load at the cost of memory. Best for dense static maps.
+         */
+        RASTER
+    }
+
+    /**
+     * Constructs an Environment from its shapes, indexed by a bounding-volume hierarchy.
+     *
+     * @param shapes The shapes of the environment, in declaration order.
+     */
+    public Environment(List<Shape> shapes) {
+        this(shapes, IndexMode.BVH);
+    }
+
+    /**
+     * Constructs an Environment from its shapes, indexed as requested.
+     *
+     * @param shapes    The shapes of the environment, in declaration order.
+     * @param indexMode The kind of index answering label lookups.
+     */
+    public Environment(List<Shape> shapes, IndexMode indexMode) {
+        this(shapes, indexMode, 0);
+    }
+
+    /**
+     * Constructs an Environment from its shapes, indexed as requested.
+     *
+     * @param shapes         The shapes of the environment, in declaration order.
+     * @param indexMode      The kind of index answering label lookups.
+     * @param rasterCellSize The side of the cells of a RASTER index, 0 or less to pick one from the amount of shapes.
+     *                       Ignored by the other index modes.
+     * @throws IllegalArgumentException if the raster would have too many cells.
+     */
+    public Environment(List<Shape> shapes, IndexMode indexMode, double rasterCellSize) {
+        this.shapes = List.copyOf(shapes);
+        this.shapeArray = this.shapes.toArray(new Shape[0]);
+        this.indexMode = indexMode;
+        this.index = switch (indexMode) {
+            case LINEAR -> new LinearShapeIndex(shapeArray);
+            case BVH -> new BoundingVolumeHierarchy(shapeArray);
+            case RASTER -> new RasterShapeIndex(shapeArray, rasterCellSize);
+        };
+    }
+
+    /**
+     * Retrieves the shapes of the environment.
+     *
+     * @return An unmodifiable list of the shapes, in declaration order.
+     */
+    public List<Shape> getShapes() {
+        return shapes;
+    }
+
+    /**
+     * Retrieves the kind of index answering label lookups.
+     *
+     * @return The index mode.
+     */
+    public IndexMode getIndexMode() {
+        return indexMode;
+    }
+
+    /**
+     * Checks whether the environment has no shapes.
+     *
+     * @return True if there are no shapes.
+     */
+    public boolean isEmpty() {
+        return shapes.isEmpty();
+    }
+
+    /**
+     * Finds the shape labelling a point: the first shape, in declaration order, containing it.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return The shape, null if the point is outside every shape.
+     */
+    public Shape findShape(double x, double y) {
+        int shape = index.find(x, y);
+        return shape < 0 ? null : shapeArray[shape];
+    }
+
+    /**
+     * Retrieves the label of a point.
+     *
+     * @param x The x-coordinate of the point.
+     * @param y The y-coordinate of the point.
+     * @return An Optional containing the label, or an empty Optional if the point is outside every shape.
+     */
+    public Optional<String> getLabel(double x, double y) {
+        Shape shape = findShape(x, y);
+        return shape == null ? Optional.empty() : Optional.of(shape.getLabel());
+    }
+
+    /**
+     * Checks whether a point has the given label, without allocating.
+     *
+     * @param label The label to check against.
+     * @param x     The x-coordinate of the point.
+     * @param y     The y-coordinate of the point.
+     * @return True if the label of the point is the given one.
+     */
+    public boolean hasLabel(String label, double x, double y) {
+        Shape shape = findShape(x, y);
+        return shape != null && shape.getLabel().equals(label);
+    }
+}
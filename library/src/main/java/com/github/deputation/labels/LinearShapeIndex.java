@@ -0,0 +1,33 @@
+package com.github.deputation.labels;
+
+/**
+ * Shape index testing every shape in declaration order until one contains the point.
+ *
+ * It needs no setup and no memory, and is the fastest index for environments of a handful of shapes.
+ */
+class LinearShapeIndex implements ShapeIndex {
+    /**
+     * The shapes, in declaration order.
+     */
+    private final Shape[] shapes;
+
+    /**
+     * Constructs a LinearShapeIndex over the given shapes.
+     *
+     * @param shapes the shapes, in declaration order
+     */
+    LinearShapeIndex(Shape[] shapes) {
+        this.shapes = shapes;
+    }
+
+    @Override
+    public int find(double x, double y) {
+        for (int i = 0; i < shapes.length; i++) {
+            if (shapes[i].isInside(x, y)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,292 @@
+package com.github.deputation.labels;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Shape index precomputing a raster grid over the bounding box of the environment, trading memory for lookups
+ * that are, on dense static maps, a single array load.
+ *
+ * Every cell stores either the shape labelling all of its points, when the first declared shape overlapping the
+ * cell covers it entirely, or the short list of shapes overlapping it, in declaration order, when shapes cross
+ * the cell. Lists stop at the first shape covering the cell, as no later shape can win there. Points outside the
+ * grid can only be inside shapes without finite bounds, which are tested linearly.
+ */
+class RasterShapeIndex implements ShapeIndex {
+    /**
+     * Most cells a grid may have.
+     */
+    static final int MAX_CELLS = 1 << 24;
+
+    /**
+     * Cell value of a cell no shape overlaps.
+     */
+    private static final int NO_SHAPE = -1;
+
+    /**
+     * The shapes, in declaration order.
+     */
+    private final Shape[] shapes;
+
+    /**
+     * Shapes without finite bounds, in declaration order.
+     */
+    private final int[] unbounded;
+
+    /**
+     * Bounding box of the grid.
+     */
+    private final double minX, minY, maxX, maxY;
+
+    /**
+     * Side of the cells.
+     */
+    private final double cellSize;
+
+    /**
+     * Amount of columns and rows of the grid.
+     */
+    private final int columns, rows;
+
+    /**
+     * Value of every cell, row by row: the shape covering it, NO_SHAPE, or -2 - the offset of its candidate list.
+     */
+    private final int[] cells;
+
+    /**
+     * Candidate lists of the cells crossed by shapes, every list being its length followed by the shapes.
+     */
+    private final int[] candidates;
+
+    /**
+     * Builds a RasterShapeIndex over the given shapes.
+     *
+     * @param shapes   the shapes, in declaration order
+     * @param cellSize the side of the cells, 0 or less to pick one that gives a few cells per shape
+     * @throws IllegalArgumentException if the grid would have more than {@link #MAX_CELLS} cells.
+     */
+    RasterShapeIndex(Shape[] shapes, double cellSize) {
+        this.shapes = shapes;
+
+        double boxMinX = Double.POSITIVE_INFINITY, boxMinY = Double.POSITIVE_INFINITY;
+        double boxMaxX = Double.NEGATIVE_INFINITY, boxMaxY = Double.NEGATIVE_INFINITY;
+        int bounded = 0;
+
+        for (Shape shape : shapes) {
+            if (isBounded(shape)) {
+                boxMinX = Math.min(boxMinX, shape.getMinX());
+                boxMinY = Math.min(boxMinY, shape.getMinY());
+                boxMaxX = Math.max(boxMaxX, shape.getMaxX());
+                boxMaxY = Math.max(boxMaxY, shape.getMaxY());
+                bounded++;
+            }
+        }
+
+        unbounded = new int[shapes.length - bounded];
+        for (int i = 0, u = 0; i < shapes.length; i++) {
+            if (!isBounded(shapes[i])) {
+                unbounded[u++] = i;
+            }
+        }
+
+        if (bounded == 0) {
+            minX = minY = maxX = maxY = 0;
+            this.cellSize = 1;
+            columns = rows = 0;
+            cells = new int[0];
+            candidates = new int[0];
+            return;
+        }
+
+        // Pad the box so that points isInside accepts after rounding are never outside the grid.
+        double padX = 16 * Math.ulp(Math.max(Math.abs(boxMinX), Math.abs(boxMaxX)));
+        double padY = 16 * Math.ulp(Math.max(Math.abs(boxMinY), Math.abs(boxMaxY)));
+        minX = boxMinX - padX;
+        minY = boxMinY - padY;
+        maxX = boxMaxX + padX;
+        maxY = boxMaxY + padY;
+
+        double width = maxX - minX;
+        double height = maxY - minY;
+        if (cellSize <= 0) {
+            int target = Math.min(MAX_CELLS, Math.max(1024, 16 * shapes.length));
+            cellSize = Math.max(Math.sqrt(width * height / target), Math.max(width, height) / target);
+        }
+        this.cellSize = cellSize;
+
+        long columnCount = Math.max(1, (long) Math.ceil(width / cellSize));
+        long rowCount = Math.max(1, (long) Math.ceil(height / cellSize));
+        if (columnCount * rowCount > MAX_CELLS) {
+            throw new IllegalArgumentException("Raster of " + columnCount + "x" + rowCount
+                    + " cells is too fine, use a larger cell size.");
+        }
+        columns = (int) columnCount;
+        rows = (int) rowCount;
+        cells = new int[columns * rows];
+
+        // Lay out the shapes overlapping every cell, in declaration order, as one flat array of lists.
+        int[] starts = new int[cells.length + 1];
+        for (Shape shape : shapes) {
+            forEachCell(shape, cell -> starts[cell + 1]++);
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            starts[cell + 1] += starts[cell];
+        }
+
+        int[] overlapping = new int[starts[cells.length]];
+        int[] filled = new int[cells.length];
+        for (int i = 0; i < shapes.length; i++) {
+            int shape = i;
+            forEachCell(shapes[i], cell -> overlapping[starts[cell] + filled[cell]++] = shape);
+        }
+
+        // Resolve every cell, cutting its list at the first shape covering it.
+        int[] lists = new int[16];
+        int size = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            int from = starts[cell];
+            int to = starts[cell + 1];
+            int end = from;
+            boolean covered = false;
+
+            while (end < to && !covered) {
+                covered = covers(shapes[overlapping[end++]], cell);
+            }
+
+            if (end == from) {
+                cells[cell] = NO_SHAPE;
+            } else if (covered && end == from + 1) {
+                cells[cell] = overlapping[from];
+            } else {
+                int length = end - from;
+                if (size + length + 1 > lists.length) {
+                    lists = Arrays.copyOf(lists, Math.max(lists.length * 2, size + length + 1));
+                }
+
+                cells[cell] = -2 - size;
+                lists[size++] = length;
+                System.arraycopy(overlapping, from, lists, size, length);
+                size += length;
+            }
+        }
+
+        candidates = Arrays.copyOf(lists, size);
+    }
+
+    @Override
+    public int find(double x, double y) {
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY && cells.length > 0) {
+            int column = Math.min(columns - 1, (int) ((x - minX) / cellSize));
+            int row = Math.min(rows - 1, (int) ((y - minY) / cellSize));
+            int value = cells[row * columns + column];
+
+            if (value >= NO_SHAPE) {
+                return value;
+            }
+
+            int at = -2 - value;
+            int end = at + 1 + candidates[at];
+            for (int i = at + 1; i < end; i++) {
+                if (shapes[candidates[i]].isInside(x, y)) {
+                    return candidates[i];
+                }
+            }
+
+            return -1;
+        }
+
+        for (int i : unbounded) {
+            if (shapes[i].isInside(x, y)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Visits the cells a shape's bounding box, padded against rounding, overlaps; every cell for shapes without
+     * finite bounds.
+     *
+     * @param shape   the shape
+     * @param visitor the visitor called with the index of every cell
+     */
+    private void forEachCell(Shape shape, IntConsumer visitor) {
+        int firstColumn = 0, lastColumn = columns - 1, firstRow = 0, lastRow = rows - 1;
+
+        if (isBounded(shape)) {
+            double padX = 16 * Math.ulp(Math.max(Math.abs(shape.getMinX()), Math.abs(shape.getMaxX())));
+            double padY = 16 * Math.ulp(Math.max(Math.abs(shape.getMinY()), Math.abs(shape.getMaxY())));
+            firstColumn = column(shape.getMinX() - padX);
+            lastColumn = column(shape.getMaxX() + padX);
+            firstRow = row(shape.getMinY() - padY);
+            lastRow = row(shape.getMaxY() + padY);
+        }
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                visitor.accept(row * columns + column);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a shape contains every point of a cell. Only circles and rectangles are known to be convex,
+     * which makes containing the corners enough; the corners are pushed out a little against rounding.
+     *
+     * @param shape the shape
+     * @param cell  the index of the cell
+     * @return true if the shape contains the whole cell
+     */
+    private boolean covers(Shape shape, int cell) {
+        if (!(shape instanceof Circle) && !(shape instanceof Rectangle)) {
+            return false;
+        }
+
+        double left = minX + (cell % columns) * cellSize;
+        double bottom = minY + (cell / columns) * cellSize;
+        double right = left + cellSize;
+        double top = bottom + cellSize;
+
+        double padX = 16 * Math.ulp(Math.max(Math.abs(left), Math.abs(right)));
+        double padY = 16 * Math.ulp(Math.max(Math.abs(bottom), Math.abs(top)));
+        left -= padX;
+        right += padX;
+        bottom -= padY;
+        top += padY;
+
+        return shape.isInside(left, bottom) && shape.isInside(right, bottom)
+                && shape.isInside(left, top) && shape.isInside(right, top);
+    }
+
+    /**
+     * Returns the column of an x-coordinate, clamped to the grid.
+     *
+     * @param x the x-coordinate
+     * @return the column
+     */
+    private int column(double x) {
+        return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellSize)));
+    }
+
+    /**
+     * Returns the row of a y-coordinate, clamped to the grid.
+     *
+     * @param y the y-coordinate
+     * @return the row
+     */
+    private int row(double y) {
+        return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellSize)));
+    }
+
+    /**
+     * Checks whether a shape has a finite bounding box.
+     *
+     * @param shape the shape
+     * @return true if the box is finite
+     */
+    private static boolean isBounded(Shape shape) {
+        return Double.isFinite(shape.getMinX()) && Double.isFinite(shape.getMinY())
+                && Double.isFinite(shape.getMaxX()) && Double.isFinite(shape.getMaxY());
+    }
+}
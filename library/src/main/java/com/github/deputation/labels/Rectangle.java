@@ -1,6 +1,6 @@
 package com.github.deputation.labels;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a rectangle shape.
@@ -105,6 +105,46 @@ public class Rectangle implements Shape {
         return height;
     }
 
+    /**
+     * Retrieves the smallest X-coordinate of the rectangle's bounding box.
+     *
+     * @return The smallest X-coordinate.
+     */
+    @Override
+    public double getMinX() {
+        return centerX - width / 2;
+    }
+
+    /**
+     * Retrieves the smallest Y-coordinate of the rectangle's bounding box.
+     *
+     * @return The smallest Y-coordinate.
+     */
+    @Override
+    public double getMinY() {
+        return centerY - height / 2;
+    }
+
+    /**
+     * Retrieves the largest X-coordinate of the rectangle's bounding box.
+     *
+     * @return The largest X-coordinate.
+     */
+    @Override
+    public double getMaxX() {
+        return centerX + width / 2;
+    }
+
+    /**
+     * Retrieves the largest Y-coordinate of the rectangle's bounding box.
+     *
+     * @return The largest Y-coordinate.
+     */
+    @Override
+    public double getMaxY() {
+        return centerY + height / 2;
+    }
+
     /**
      * Checks if the specified coordinates are inside the rectangle.
      *
@@ -119,12 +159,11 @@ public class Rectangle implements Shape {
     }
 
     /**
-     * @return
+     * @param random The random source to draw from.
+     * @return A random pair of coordinates inside the Shape.
      */
     @Override
-    public double[] getCoordsInside() {
-        Random random = new Random();
-
+    public double[] getCoordsInside(RandomGenerator random) {
         double xInside = centerX - width / 2 + random.nextDouble() * width;
         double yInside = centerY - height / 2 + random.nextDouble() * height;
 
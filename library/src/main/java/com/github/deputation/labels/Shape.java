@@ -1,5 +1,8 @@
 package com.github.deputation.labels;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * Represents a shape with a label and a shape type.
  */
@@ -32,5 +35,52 @@ public interface Shape {
      *
      * @return an array representing the coordinates inside the object
      */
-    double[] getCoordsInside();
+    default double[] getCoordsInside() {
+        return getCoordsInside(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Retrieves random coordinates inside the object as an array, drawn from the given random source.
+     *
+     * @param random the random source to draw from
+     * @return an array representing the coordinates inside the object
+     */
+    double[] getCoordsInside(RandomGenerator random);
+
+    /**
+     * Retrieves the smallest X-coordinate of the shape's bounding box.
+     * Shapes that don't know their bounds are unbounded, and are checked against every point.
+     *
+     * @return the smallest X-coordinate a point inside the shape can have
+     */
+    default double getMinX() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Retrieves the smallest Y-coordinate of the shape's bounding box.
+     *
+     * @return the smallest Y-coordinate a point inside the shape can have
+     */
+    default double getMinY() {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Retrieves the largest X-coordinate of the shape's bounding box.
+     *
+     * @return the largest X-coordinate a point inside the shape can have
+     */
+    default double getMaxX() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retrieves the largest Y-coordinate of the shape's bounding box.
+     *
+     * @return the largest Y-coordinate a point inside the shape can have
+     */
+    default double getMaxY() {
+        return Double.POSITIVE_INFINITY;
+    }
 }
@@ -0,0 +1,19 @@
+package com.github.deputation.labels;
+
+/**
+ * Spatial index answering which shape of an environment labels a point.
+ *
+ * Implementations must keep the first-match semantics of the environment: among the shapes containing the
+ * point, the one declared first wins. Indexes are immutable once built and queried from several threads at once,
+ * so queries must not keep state between calls.
+ */
+interface ShapeIndex {
+    /**
+     * Finds the first shape, in declaration order, containing a point.
+     *
+     * @param x the x-coordinate of the point
+     * @param y the y-coordinate of the point
+     * @return the position of the shape in declaration order, -1 if the point is outside every shape
+     */
+    int find(double x, double y);
+}
@@ -0,0 +1,141 @@
+package com.github.deputation.language;
+
+import com.github.deputation.instructions.RobotInstruction;
+
+/**
+ * A FollowMe program lowered by the {@link ProgramCompiler} into a flat array of int opcodes.
+ *
+ * Every opcode is followed by its operands. Leaf instructions (MOVE, SIGNAL, FOLLOW...) reference the
+ * instruction they run in the instruction pool, UNTIL loops reference their label in the label pool, and loop
+ * opcodes carry the absolute index of the opcode they jump to:
+ *
+ * <pre>
+ * MOVE i, MOVE_RANDOM i, SIGNAL i, UNSIGNAL i, FOLLOW i, STOP i, CONTINUE i   run instruction i of the pool
+ * REPEAT times end          enter the loop, end being the index of its REPEAT_END
+ * REPEAT_END body           count an iteration, jump back to body while iterations are left
+ * UNTIL label exit          enter the loop unless the robot is inside label, exit being past its UNTIL_END
+ * UNTIL_END label body      leave the loop if the robot is inside label, jump back to body otherwise
+ * DO_FOREVER                enter the loop
+ * FOREVER_END body          jump back to body
+ * END                       terminate the program
+ * </pre>
+ *
+ * These opcodes differ from {@link com.github.deputation.instructions.Opcode}, which names whole instructions,
+ * because every loop compiles to an opening and a closing opcode. Leaf opcodes are numbered like the ordinal of
+ * the Opcode they are compiled from; they stay int literals so that they can label the cases of a switch.
+ *
+ * Bytecode is immutable once compiled.
+ */
+public final class Bytecode {
+    public static final int MOVE = 0;
+    public static final int MOVE_RANDOM = 1;
+    public static final int SIGNAL = 2;
+    public static final int UNSIGNAL = 3;
+    public static final int FOLLOW = 4;
+    public static final int STOP = 5;
+    public static final int CONTINUE = 6;
+    public static final int REPEAT = 7;
+    public static final int REPEAT_END = 8;
+    public static final int UNTIL = 9;
+    public static final int UNTIL_END = 10;
+    public static final int DO_FOREVER = 11;
+    public static final int FOREVER_END = 12;
+    public static final int END = 13;
+
+    /**
+     * Amount of opcodes, one past the largest.
+     */
+    public static final int OPCODES = 14;
+
+    /**
+     * Names of the opcodes, indexed by opcode.
+     */
+    private static final String[] NAMES = {
+            "MOVE", "MOVE_RANDOM", "SIGNAL", "UNSIGNAL", "FOLLOW", "STOP", "CONTINUE", "REPEAT", "REPEAT_END",
+            "UNTIL", "UNTIL_END", "DO_FOREVER", "FOREVER_END", "END"
+    };
+
+    /**
+     * Opcodes and their operands.
+     */
+    private final int[] code;
+
+    /**
+     * Leaf instructions referenced by the code.
+     */
+    private final RobotInstruction[] instructions;
+
+    /**
+     * Labels referenced by UNTIL loops.
+     */
+    private final String[] labels;
+
+    /**
+     * Deepest nesting of REPEAT loops, i.e. the most REPEAT counters a robot needs at once.
+     */
+    private final int maxRepeatDepth;
+
+    /**
+     * Constructs a Bytecode from its code and pools.
+     *
+     * @param code         The opcodes and their operands.
+     * @param instructions The leaf instructions referenced by the code.
+     * @param labels       The labels referenced by the code.
+     * @param maxRepeatDepth The deepest nesting of REPEAT loops.
+     */
+    Bytecode(int[] code, RobotInstruction[] instructions, String[] labels, int maxRepeatDepth) {
+        this.code = code;
+        this.instructions = instructions;
+        this.labels = labels;
+        this.maxRepeatDepth = maxRepeatDepth;
+    }
+
+    /**
+     * Returns the opcodes and their operands. The array is shared and must not be modified.
+     *
+     * @return The code.
+     */
+    public int[] getCode() {
+        return code;
+    }
+
+    /**
+     * Returns a leaf instruction of the pool.
+     *
+     * @param index The index of the instruction, as found in the code.
+     * @return The instruction.
+     */
+    public RobotInstruction getInstruction(int index) {
+        return instructions[index];
+    }
+
+    /**
+     * Returns a label of the pool.
+     *
+     * @param index The index of the label, as found in the code.
+     * @return The label.
+     */
+    public String getLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Returns the name of an opcode.
+     *
+     * @param opcode The opcode.
+     * @return The name, e.g. "REPEAT_END".
+     */
+    public static String name(int opcode) {
+        return NAMES[opcode];
+    }
+
+    /**
+     * Returns the deepest nesting of REPEAT loops in the program, which bounds the REPEAT counters a robot
+     * running it needs whatever the repeat counts.
+     *
+     * @return The deepest REPEAT nesting, 0 if there are no REPEAT loops.
+     */
+    public int getMaxRepeatDepth() {
+        return maxRepeatDepth;
+    }
+}
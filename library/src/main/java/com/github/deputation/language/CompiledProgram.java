@@ -0,0 +1,101 @@
+package com.github.deputation.language;
+
+import com.github.deputation.instructions.DoForeverInstruction;
+import com.github.deputation.instructions.FollowInstruction;
+import com.github.deputation.instructions.RepeatInstruction;
+import com.github.deputation.instructions.RobotInstruction;
+import com.github.deputation.instructions.UntilInstruction;
+
+import java.util.List;
+
+/**
+ * A FollowMe program compiled once and shared by every robot running it.
+ *
+ * The CompiledProgram is immutable, so a single instance can be referenced by the whole swarm and read from
+ * several threads at once: robots only keep their own execution state (program counter and REPEAT counters)
+ * next to it. The instructions it was compiled from must not be modified afterwards.
+ */
+public final class CompiledProgram {
+    /**
+     * The program without instructions, which robots run until they are programmed.
+     */
+    public static final CompiledProgram EMPTY = new CompiledProgram(List.of());
+
+    /**
+     * The instructions the program was compiled from.
+     */
+    private final List<RobotInstruction> instructions;
+
+    /**
+     * The instructions lowered to flat bytecode.
+     */
+    private final Bytecode bytecode;
+
+    /**
+     * The largest FOLLOW distance in the program.
+     */
+    private final double maxFollowDistance;
+
+    /**
+     * Constructs a CompiledProgram by compiling the given instructions.
+     *
+     * @param instructions The instructions of the program.
+     * @throws IllegalArgumentException if the program contains an unsupported instruction.
+     */
+    public CompiledProgram(List<RobotInstruction> instructions) {
+        this.instructions = List.copyOf(instructions);
+        this.bytecode = new ProgramCompiler().compile(this.instructions);
+        this.maxFollowDistance = maxFollowDistance(this.instructions);
+    }
+
+    /**
+     * Returns the instructions the program was compiled from.
+     *
+     * @return An unmodifiable list of the top-level instructions.
+     */
+    public List<RobotInstruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Returns the program lowered to flat bytecode.
+     *
+     * @return The bytecode.
+     */
+    public Bytecode getBytecode() {
+        return bytecode;
+    }
+
+    /**
+     * Returns the largest FOLLOW distance in the program, looking inside loops.
+     *
+     * @return The largest FOLLOW distance, 0 if there are no FOLLOW instructions.
+     */
+    public double getMaxFollowDistance() {
+        return maxFollowDistance;
+    }
+
+    /**
+     * Finds the largest FOLLOW distance in a body of instructions, looking inside loops.
+     *
+     * @param instructions The body of instructions to look into.
+     * @return The largest FOLLOW distance, 0 if there are no FOLLOW instructions.
+     */
+    private static double maxFollowDistance(List<RobotInstruction> instructions) {
+        double maxDistance = 0;
+
+        for (RobotInstruction instruction : instructions) {
+            if (instruction instanceof FollowInstruction follow) {
+                maxDistance = Math.max(maxDistance, follow.getParameters()[0]);
+            } else if (instruction instanceof RepeatInstruction repeat) {
+                maxDistance = Math.max(maxDistance, maxFollowDistance(repeat.getInstructions()));
+            } else if (instruction instanceof UntilInstruction until) {
+                maxDistance = Math.max(maxDistance, maxFollowDistance(until.getInstructions()));
+            } else if (instruction instanceof DoForeverInstruction doForever) {
+                maxDistance = Math.max(maxDistance, maxFollowDistance(doForever.getInstructions()));
+            }
+        }
+
+        return maxDistance;
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.deputation.language;
+
+import com.github.deputation.instructions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lowers the tree of instructions built by the RobotProgram into flat {@link Bytecode}.
+ *
+ * Loop bodies are laid out inline between the loop opcode and its end opcode, so that the interpreter only
+ * needs a program counter and a stack of REPEAT counters instead of a stack of bodies.
+ */
+public class ProgramCompiler {
+    /**
+     * Opcodes and operands emitted so far.
+     */
+    private int[] code;
+
+    /**
+     * Amount of ints emitted so far.
+     */
+    private int size;
+
+    /**
+     * Amount of REPEAT loops enclosing the instruction being compiled.
+     */
+    private int repeatDepth;
+
+    /**
+     * Deepest REPEAT nesting found so far.
+     */
+    private int maxRepeatDepth;
+
+    /**
+     * Leaf instructions referenced by the code.
+     */
+    private final List<RobotInstruction> instructions;
+
+    /**
+     * Labels referenced by the code.
+     */
+    private final List<String> labels;
+
+    /**
+     * Constructs a ProgramCompiler.
+     */
+    public ProgramCompiler() {
+        code = new int[16];
+        instructions = new ArrayList<>();
+        labels = new ArrayList<>();
+    }
+
+    /**
+     * Compiles a program, terminating it with an END opcode.
+     *
+     * @param program The instructions of the program.
+     * @return The compiled program.
+     * @throws IllegalArgumentException if the program contains an unsupported instruction, or a loop
+     *                                  instruction that is not of the class its opcode implies.
+     */
+    public Bytecode compile(List<RobotInstruction> program) {
+        size = 0;
+        repeatDepth = 0;
+        maxRepeatDepth = 0;
+        instructions.clear();
+        labels.clear();
+
+        compileBody(program);
+        emit(Bytecode.END);
+
+        return new Bytecode(Arrays.copyOf(code, size),
+                instructions.toArray(new RobotInstruction[0]),
+                labels.toArray(new String[0]),
+                maxRepeatDepth);
+    }
+
+    /**
+     * Compiles a body of instructions in place.
+     *
+     * @param body The instructions of the body.
+     */
+    private void compileBody(List<RobotInstruction> body) {
+        for (RobotInstruction instruction : body) {
+            compileInstruction(instruction);
+        }
+    }
+
+    /**
+     * Compiles a single instruction, along with its body if it is a loop.
+     *
+     * @param instruction The instruction to compile.
+     */
+    private void compileInstruction(RobotInstruction instruction) {
+        switch (instruction.getOpcode()) {
+            case MOVE -> emitLeaf(Bytecode.MOVE, instruction);
+            case MOVE_RANDOM -> emitLeaf(Bytecode.MOVE_RANDOM, instruction);
+            case SIGNAL -> emitLeaf(Bytecode.SIGNAL, instruction);
+            case UNSIGNAL -> emitLeaf(Bytecode.UNSIGNAL, instruction);
+            case FOLLOW -> emitLeaf(Bytecode.FOLLOW, instruction);
+            case STOP -> emitLeaf(Bytecode.STOP, instruction);
+            case CONTINUE -> emitLeaf(Bytecode.CONTINUE, instruction);
+            case REPEAT -> compileRepeat(as(instruction, RepeatInstruction.class));
+            case UNTIL -> compileUntil(as(instruction, UntilInstruction.class));
+            case DO_FOREVER -> compileDoForever(as(instruction, DoForeverInstruction.class));
+            case END -> emit(Bytecode.END);
+            default -> throw new IllegalArgumentException("Unsupported opcode: " + instruction.getOpcode());
+        }
+    }
+
+    /**
+     * Compiles a REPEAT loop: REPEAT times end, body, REPEAT_END body.
+     *
+     * @param repeat The loop instruction.
+     */
+    private void compileRepeat(RepeatInstruction repeat) {
+        int loop = emit(Bytecode.REPEAT, repeat.getTimes(), 0);
+        int body = size;
+
+        maxRepeatDepth = Math.max(maxRepeatDepth, ++repeatDepth);
+        compileBody(repeat.getInstructions());
+        repeatDepth--;
+
+        int end = emit(Bytecode.REPEAT_END, body);
+        code[loop + 2] = end;
+    }
+
+    /**
+     * Compiles an UNTIL loop: UNTIL label exit, body, UNTIL_END label body.
+     *
+     * @param until The loop instruction.
+     */
+    private void compileUntil(UntilInstruction until) {
+        int label = labels.size();
+        labels.add(until.getLabel());
+
+        int loop = emit(Bytecode.UNTIL, label, 0);
+        int body = size;
+
+        compileBody(until.getInstructions());
+
+        emit(Bytecode.UNTIL_END, label, body);
+        code[loop + 2] = size;
+    }
+
+    /**
+     * Compiles a DO FOREVER loop: DO_FOREVER, body, FOREVER_END body.
+     *
+     * @param doForever The loop instruction.
+     */
+    private void compileDoForever(DoForeverInstruction doForever) {
+        emit(Bytecode.DO_FOREVER);
+        int body = size;
+
+        compileBody(doForever.getInstructions());
+
+        emit(Bytecode.FOREVER_END, body);
+    }
+
+    /**
+     * Emits a leaf opcode, adding its instruction to the pool.
+     *
+     * @param opcode      The opcode.
+     * @param instruction The instruction the opcode runs.
+     */
+    private void emitLeaf(int opcode, RobotInstruction instruction) {
+        emit(opcode, instructions.size());
+        instructions.add(instruction);
+    }
+
+    /**
+     * Appends an opcode and its operands to the code.
+     *
+     * @param opcode   The opcode.
+     * @param operands The operands.
+     * @return The index of the opcode in the code.
+     */
+    private int emit(int opcode, int... operands) {
+        int at = size;
+
+        if (size + 1 + operands.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + 1 + operands.length));
+        }
+
+        code[size++] = opcode;
+        for (int operand : operands) {
+            code[size++] = operand;
+        }
+
+        return at;
+    }
+
+    /**
+     * Casts an instruction to the class matching its opcode.
+     *
+     * @param instruction The instruction.
+     * @param type        The class its opcode implies.
+     * @return The instruction, cast.
+     * @throws IllegalArgumentException if the instruction is not of the given class.
+     */
+    private static <T extends RobotInstruction> T as(RobotInstruction instruction, Class<T> type) {
+        if (!type.isInstance(instruction)) {
+            throw new IllegalArgumentException("Instruction with opcode " + instruction.getOpcode()
+                    + " is not a " + type.getSimpleName() + ".");
+        }
+
+        return type.cast(instruction);
+    }
+}
@@ -2,6 +2,7 @@ package com.github.deputation.language;
 
 import com.github.deputation.instructions.*;
 import com.github.deputation.labels.Circle;
+import com.github.deputation.labels.Environment;
 import com.github.deputation.labels.Rectangle;
 import com.github.deputation.labels.Shape;
 import com.github.deputation.labels.ShapeType;
@@ -27,11 +28,31 @@ public class RobotProgram implements FollowMeParserHandler {
      */
     private final List<Shape> programShapes;
 
+    /**
+     * The environment built from the shapes, once per load and shared by every robot.
+     */
+    private Environment environment;
+
+    /**
+     * The kind of index the environment answers label lookups with.
+     */
+    private Environment.IndexMode environmentIndexMode;
+
+    /**
+     * The side of the raster cells when the environment is indexed by a raster, 0 to pick one automatically.
+     */
+    private double rasterCellSize;
+
     /**
      * The ParsingBodyStack object used to track the bodies of loops during parsing.
      */
     private final ParsingBodyStack parsingBodyStack;
 
+    /**
+     * The program compiled from the instructions, built once per parse and shared by every robot.
+     */
+    private CompiledProgram compiledProgram;
+
     /**
      * Constructor for RobotProgram.
      * Initializes the program instructions and shapes list.
@@ -40,6 +61,8 @@ public class RobotProgram implements FollowMeParserHandler {
     public RobotProgram() {
         programInstructions = new ArrayList<>();
         programShapes = new ArrayList<>();
+        environment = Environment.EMPTY;
+        environmentIndexMode = Environment.IndexMode.BVH;
         parsingBodyStack = new ParsingBodyStack();
     }
 
@@ -61,6 +84,21 @@ public class RobotProgram implements FollowMeParserHandler {
                 default -> throw new IllegalArgumentException("Unsupported shape type: " + type);
             }
         }
+
+        environment = new Environment(programShapes, environmentIndexMode, rasterCellSize);
+    }
+
+    /**
+     * Chooses how the environment indexes its shapes for label lookups, taking effect from the next load of
+     * shape data.
+     *
+     * @param indexMode      The kind of index answering label lookups.
+     * @param rasterCellSize The side of the raster cells for the RASTER index mode, 0 or less to pick one
+     *                       from the amount of shapes.
+     */
+    public void setEnvironmentIndex(Environment.IndexMode indexMode, double rasterCellSize) {
+        this.environmentIndexMode = indexMode;
+        this.rasterCellSize = rasterCellSize;
     }
 
     /**
@@ -104,6 +142,7 @@ public class RobotProgram implements FollowMeParserHandler {
     public void parsingStarted() {
         parsingBodyStack.clear();
         programInstructions.clear();
+        compiledProgram = null;
 
         parsingBodyStack.startBody(programInstructions);
     }
@@ -291,12 +330,17 @@ public class RobotProgram implements FollowMeParserHandler {
     }
 
     /**
-     * Retrieves a copy of the compiled program instructions.
+     * Retrieves the compiled program. It is compiled once per parse, and the same immutable instance is
+     * returned on every call.
      *
-     * @return a copy of the compiled program instructions
+     * @return the compiled program
      */
-    public List<RobotInstruction> getCompiledProgram() {
-        return new ArrayList<>(programInstructions);
+    public CompiledProgram getCompiledProgram() {
+        if (compiledProgram == null) {
+            compiledProgram = new CompiledProgram(programInstructions);
+        }
+
+        return compiledProgram;
     }
 
     /**
@@ -307,4 +351,14 @@ public class RobotProgram implements FollowMeParserHandler {
     public List<Shape> getEnvironmentalData() {
         return new ArrayList<>(programShapes);
     }
+
+    /**
+     * Retrieves the environment built from the shapes. The same immutable instance is returned until new
+     * shape data is loaded.
+     *
+     * @return the environment
+     */
+    public Environment getEnvironment() {
+        return environment;
+    }
 }
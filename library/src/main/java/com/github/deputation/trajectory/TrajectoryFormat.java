@@ -0,0 +1,61 @@
+package com.github.deputation.trajectory;
+
+/**
+ * Layout of the binary trajectory files written by {@link TrajectoryWriter}. Every number is little-endian.
+ *
+ * <pre>
+ * header   int magic, int version, int robots, int keyframe interval
+ * frame    long tick, int body length, byte kind, byte signal words, short 0, then the body:
+ *          one column per channel (x, y, heading, speed, then every signal word), each being
+ *          byte width, then robots * width bytes
+ * index    long tick, long frame offset, for every frame
+ * labels   int count, then for every signal label: short length, UTF-8 bytes
+ * trailer  long index offset, long labels offset, long frames, int trailer magic, int 0
+ * </pre>
+ *
+ * A column holds, for every robot, the bits of its value XOR the bits of its value in the previous frame, or of
+ * 0 in a keyframe, truncated to the fewest low bytes that hold all of them. Unchanged columns take up a single
+ * byte and the value of any robot is found at a fixed offset of its column. Doubles are stored as their raw long
+ * bits. A keyframe is written every keyframe interval frames, so decoding a frame never goes back further than that.
+ *
+ * The index, labels and trailer are written when the writer is closed; a file without them, e.g. because the
+ * simulation crashed, can still be read up to its last complete frame by walking the frame headers.
+ */
+final class TrajectoryFormat {
+    /**
+     * "RSTJ", first int of every trajectory file.
+     */
+    static final int MAGIC = 0x4A545352;
+
+    /**
+     * "RSTE", marking a complete trailer at the end of the file.
+     */
+    static final int TRAILER_MAGIC = 0x45545352;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+    static final int FRAME_HEADER_BYTES = 16;
+    static final int INDEX_ENTRY_BYTES = 16;
+    static final int TRAILER_BYTES = 32;
+
+    static final byte KEYFRAME = 0;
+    static final byte DELTA_FRAME = 1;
+
+    /**
+     * Channels stored as doubles, before the signal words.
+     */
+    static final int X = 0;
+    static final int Y = 1;
+    static final int HEADING = 2;
+    static final int SPEED = 3;
+    static final int DOUBLE_CHANNELS = 4;
+
+    /**
+     * Keyframe interval of the writers that aren't given one.
+     */
+    static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    private TrajectoryFormat() {
+    }
+}
@@ -0,0 +1,629 @@
+package com.github.deputation.trajectory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.deputation.trajectory.TrajectoryFormat.*;
+
+/**
+ * Reads trajectory files written by a {@link TrajectoryWriter}, memory-mapping them so that files larger than RAM
+ * are paged in by the OS on demand rather than read up front.
+ *
+ * The reader keeps the offset of every frame, from the index at the end of the file or, if the writer didn't get to
+ * close it, by walking the frame headers. Finding the frame of a tick is a lookup when ticks are consecutive, and a
+ * binary search otherwise, e.g. when idle ticks were skipped. Every robot sits at a fixed offset of every column, so
+ * the state of a robot at a tick is found by reading its value in at most one keyframe interval of frames, whatever
+ * the size of the file or of the swarm. A {@link Cursor} streams the frames in order instead, decoding every one
+ * straight from the mapping.
+ *
+ * The file is mapped in segments of whole frames of up to 1 GB, each mapped the first time it is read.
+ */
+public class TrajectoryReader implements Closeable {
+    /**
+     * Largest amount of bytes mapped at once, unless a single frame is larger.
+     */
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    /**
+     * The file being read.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Amount of robots of every frame.
+     */
+    private final int robots;
+
+    /**
+     * Amount of frames between two keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * Tick and file offset of every frame.
+     */
+    private final long[] ticks, offsets;
+
+    /**
+     * Whether every tick follows the previous one by 1, so that frames are found by subtraction.
+     */
+    private final boolean consecutive;
+
+    /**
+     * Signal labels, indexed by the bits of the signal words.
+     */
+    private final List<String> labels;
+
+    /**
+     * File offset of the start of every segment, and one past the end of the last frame.
+     */
+    private final long[] segmentStarts;
+
+    /**
+     * Segment of every frame.
+     */
+    private final int[] frameSegments;
+
+    /**
+     * Mapping of every segment, null until it is first read.
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Constructs a TrajectoryReader over a channel.
+     *
+     * @param channel The channel of the file to read, which the reader closes.
+     * @throws IOException if the file can't be read or isn't a trajectory file.
+     */
+    public TrajectoryReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        ByteBuffer header = read(0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a trajectory file.");
+        }
+        if (header.getInt() != VERSION) {
+            throw new IOException("Unsupported trajectory file version.");
+        }
+        robots = header.getInt();
+        keyframeInterval = header.getInt();
+
+        ByteBuffer trailer = readTrailer();
+        long[][] index = trailer != null ? readIndex(trailer) : scanFrames();
+        ticks = index[0];
+        offsets = index[1];
+        labels = trailer != null ? readLabels(trailer) : List.of();
+
+        boolean increasing = true;
+        for (int frame = 1; frame < ticks.length; frame++) {
+            increasing &= ticks[frame] == ticks[frame - 1] + 1;
+        }
+        consecutive = increasing;
+
+        long end = trailer != null ? trailer.getLong(0) : endOfFrames();
+        frameSegments = new int[ticks.length];
+        List<Long> starts = new ArrayList<>();
+        for (int frame = 0; frame < ticks.length; frame++) {
+            if (starts.isEmpty() || frameEnd(frame, end) - starts.get(starts.size() - 1) > SEGMENT_BYTES) {
+                starts.add(offsets[frame]);
+            }
+            frameSegments[frame] = starts.size() - 1;
+        }
+        starts.add(end);
+        segmentStarts = starts.stream().mapToLong(Long::longValue).toArray();
+        segments = new MappedByteBuffer[segmentStarts.length - 1];
+    }
+
+    /**
+     * Opens a trajectory file.
+     *
+     * @param path The file to read.
+     * @return The reader.
+     * @throws IOException if the file can't be read or isn't a trajectory file.
+     */
+    public static TrajectoryReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            return new TrajectoryReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads bytes of the file into a buffer of their own, for the few small parts that aren't frames.
+     */
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of trajectory file.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Reads the trailer the writer leaves at the end of the file when it is closed.
+     *
+     * @return The trailer, null if the writer didn't close the file.
+     */
+    private ByteBuffer readTrailer() throws IOException {
+        if (channel.size() < HEADER_BYTES + TRAILER_BYTES) {
+            return null;
+        }
+
+        ByteBuffer trailer = read(channel.size() - TRAILER_BYTES, TRAILER_BYTES);
+        return trailer.getInt(24) == TRAILER_MAGIC ? trailer : null;
+    }
+
+    /**
+     * Reads the ticks and offsets of the frames from the index.
+     */
+    private long[][] readIndex(ByteBuffer trailer) throws IOException {
+        long indexOffset = trailer.getLong(0);
+        int frames = Math.toIntExact(trailer.getLong(16));
+
+        ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) frames * INDEX_ENTRY_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long[] frameTicks = new long[frames];
+        long[] frameOffsets = new long[frames];
+        for (int frame = 0; frame < frames; frame++) {
+            frameTicks[frame] = index.getLong();
+            frameOffsets[frame] = index.getLong();
+        }
+        return new long[][] { frameTicks, frameOffsets };
+    }
+
+    /**
+     * Reads the signal labels.
+     */
+    private List<String> readLabels(ByteBuffer trailer) throws IOException {
+        long labelsOffset = trailer.getLong(8);
+        ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, labelsOffset,
+                channel.size() - TRAILER_BYTES - labelsOffset).order(ByteOrder.LITTLE_ENDIAN);
+
+        int count = table.getInt();
+        List<String> names = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            byte[] label = new byte[Short.toUnsignedInt(table.getShort())];
+            table.get(label);
+            names.add(new String(label, StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Finds the frames of a file that wasn't closed by walking the frame headers, up to the last complete frame.
+     */
+    private long[][] scanFrames() throws IOException {
+        long[] frameTicks = new long[1024];
+        long[] frameOffsets = new long[1024];
+        int frames = 0;
+        long offset = HEADER_BYTES;
+        long size = channel.size();
+
+        while (offset + FRAME_HEADER_BYTES <= size) {
+            ByteBuffer header = read(offset, FRAME_HEADER_BYTES);
+            long length = Integer.toUnsignedLong(header.getInt(Long.BYTES));
+            long end = offset + FRAME_HEADER_BYTES + length;
+            // The length is written last, so a frame cut short has none.
+            if (length < DOUBLE_CHANNELS + Byte.toUnsignedInt(header.get(13)) || end > size) {
+                break;
+            }
+
+            if (frames == frameTicks.length) {
+                frameTicks = Arrays.copyOf(frameTicks, frames * 2);
+                frameOffsets = Arrays.copyOf(frameOffsets, frames * 2);
+            }
+            frameTicks[frames] = header.getLong(0);
+            frameOffsets[frames] = offset;
+            frames++;
+            offset = end;
+        }
+
+        return new long[][] { Arrays.copyOf(frameTicks, frames), Arrays.copyOf(frameOffsets, frames) };
+    }
+
+    /**
+     * Finds the end of the last frame.
+     */
+    private long endOfFrames() throws IOException {
+        if (offsets.length == 0) {
+            return HEADER_BYTES;
+        }
+
+        long last = offsets[offsets.length - 1];
+        return last + FRAME_HEADER_BYTES + Integer.toUnsignedLong(read(last, FRAME_HEADER_BYTES).getInt(Long.BYTES));
+    }
+
+    /**
+     * Finds the end of a frame, given the end of the last one.
+     */
+    private long frameEnd(int frame, long end) {
+        return frame + 1 < offsets.length ? offsets[frame + 1] : end;
+    }
+
+    /**
+     * Returns the mapping of a segment, mapping it if it wasn't yet.
+     */
+    private synchronized MappedByteBuffer segment(int segment) throws IOException {
+        if (segments[segment] == null) {
+            segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStarts[segment],
+                    segmentStarts[segment + 1] - segmentStarts[segment]);
+            segments[segment].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return segments[segment];
+    }
+
+    /**
+     * Retrieves the amount of robots of every frame.
+     *
+     * @return The amount of robots.
+     */
+    public int getRobots() {
+        return robots;
+    }
+
+    /**
+     * Retrieves the amount of frames of the file.
+     *
+     * @return The amount of frames.
+     */
+    public int getFrames() {
+        return ticks.length;
+    }
+
+    /**
+     * Retrieves the tick of a frame.
+     *
+     * @param frame The frame, between 0 and the amount of frames.
+     * @return The tick.
+     */
+    public long getTick(int frame) {
+        return ticks[frame];
+    }
+
+    /**
+     * Retrieves the signal labels, indexed by their bit in the signal words.
+     *
+     * @return The labels, empty if the writer didn't close the file.
+     */
+    public List<String> getSignalLabels() {
+        return labels;
+    }
+
+    /**
+     * Finds the frame of a tick.
+     *
+     * @param tick The tick.
+     * @return The frame, -1 if no frame was recorded for the tick.
+     */
+    public int frameOf(long tick) {
+        if (consecutive) {
+            long frame = ticks.length == 0 ? -1 : tick - ticks[0];
+            return frame >= 0 && frame < ticks.length ? (int) frame : -1;
+        }
+
+        int frame = Arrays.binarySearch(ticks, tick);
+        return frame >= 0 ? frame : -1;
+    }
+
+    /**
+     * Retrieves the x-coordinate of a robot in a frame.
+     *
+     * @param frame The frame.
+     * @param robot The robot, as ordered in the swarm.
+     * @return The x-coordinate.
+     * @throws IOException if the file can't be read.
+     */
+    public double getX(int frame, int robot) throws IOException {
+        return Double.longBitsToDouble(bits(frame, X, robot));
+    }
+
+    /**
+     * Retrieves the y-coordinate of a robot in a frame.
+     *
+     * @param frame The frame.
+     * @param robot The robot, as ordered in the swarm.
+     * @return The y-coordinate.
+     * @throws IOException if the file can't be read.
+     */
+    public double getY(int frame, int robot) throws IOException {
+        return Double.longBitsToDouble(bits(frame, Y, robot));
+    }
+
+    /**
+     * Retrieves the heading of a robot in a frame.
+     *
+     * @param frame The frame.
+     * @param robot The robot, as ordered in the swarm.
+     * @return The heading in degrees.
+     * @throws IOException if the file can't be read.
+     */
+    public double getHeading(int frame, int robot) throws IOException {
+        return Double.longBitsToDouble(bits(frame, HEADING, robot));
+    }
+
+    /**
+     * Retrieves the speed of a robot in a frame.
+     *
+     * @param frame The frame.
+     * @param robot The robot, as ordered in the swarm.
+     * @return The speed.
+     * @throws IOException if the file can't be read.
+     */
+    public double getSpeed(int frame, int robot) throws IOException {
+        return Double.longBitsToDouble(bits(frame, SPEED, robot));
+    }
+
+    /**
+     * Retrieves the signals other robots observed on a robot in a frame.
+     *
+     * @param frame The frame.
+     * @param robot The robot, as ordered in the swarm.
+     * @return The signal labels.
+     * @throws IOException if the file can't be read.
+     */
+    public Set<String> getSignals(int frame, int robot) throws IOException {
+        Set<String> signals = new HashSet<>();
+        int words = view(frame).signalWords;
+
+        for (int word = 0; word < words; word++) {
+            for (long remaining = bits(frame, DOUBLE_CHANNELS + word, robot); remaining != 0;
+                 remaining &= remaining - 1) {
+                signals.add(label(word * Long.SIZE + Long.numberOfTrailingZeros(remaining)));
+            }
+        }
+        return Collections.unmodifiableSet(signals);
+    }
+
+    /**
+     * Returns the label of a signal bit, or a placeholder if the writer didn't get to write the labels.
+     */
+    private String label(int id) {
+        return id < labels.size() ? labels.get(id) : "#" + id;
+    }
+
+    /**
+     * Decodes the value of a channel of a robot in a frame, from the closest keyframe before it.
+     */
+    private long bits(int frame, int channel, int robot) throws IOException {
+        if (robot < 0 || robot >= robots) {
+            throw new IndexOutOfBoundsException("Robot " + robot + " out of " + robots + ".");
+        }
+
+        long value = 0;
+        for (int from = frame - frame % keyframeInterval; from <= frame; from++) {
+            value ^= view(from).delta(channel, robot);
+        }
+        return value;
+    }
+
+    /**
+     * Returns a view over a frame in the mapping.
+     */
+    private FrameView view(int frame) throws IOException {
+        int segment = frameSegments[frame];
+        int start = (int) (offsets[frame] - segmentStarts[segment]);
+        MappedByteBuffer mapping = segment(segment);
+
+        int length = mapping.getInt(start + Long.BYTES) + FRAME_HEADER_BYTES;
+        return new FrameView(mapping.slice(start, length).order(ByteOrder.LITTLE_ENDIAN), robots);
+    }
+
+    /**
+     * Opens a cursor streaming the frames in order, from the first one.
+     *
+     * @return The cursor.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A frame as laid out in the mapping, with the offset and width of every column.
+     */
+    private static final class FrameView {
+        private final ByteBuffer bytes;
+        private final boolean keyframe;
+        private final int signalWords;
+        private final int[] columnStarts;
+        private final int[] widths;
+
+        FrameView(ByteBuffer bytes, int robots) {
+            this.bytes = bytes;
+            keyframe = bytes.get(12) == KEYFRAME;
+            signalWords = Byte.toUnsignedInt(bytes.get(13));
+
+            int columns = DOUBLE_CHANNELS + signalWords;
+            columnStarts = new int[columns];
+            widths = new int[columns];
+
+            int position = FRAME_HEADER_BYTES;
+            for (int column = 0; column < columns; column++) {
+                widths[column] = bytes.get(position);
+                columnStarts[column] = position + 1;
+                position += 1 + robots * widths[column];
+            }
+        }
+
+        /**
+         * Reads the delta of a channel of a robot, 0 for channels the frame doesn't have.
+         */
+        long delta(int channel, int robot) {
+            if (channel >= widths.length) {
+                return 0;
+            }
+
+            int width = widths[channel];
+            int offset = columnStarts[channel] + robot * width;
+            if (width == Long.BYTES) {
+                return bytes.getLong(offset);
+            }
+
+            long delta = 0;
+            for (int b = 0; b < width; b++) {
+                delta |= Byte.toUnsignedLong(bytes.get(offset + b)) << (b * Byte.SIZE);
+            }
+            return delta;
+        }
+    }
+
+    /**
+     * Streams the frames of the file in order, keeping the decoded state of the swarm at the current frame.
+     *
+     * Every frame is decoded straight from the mapping into the state, without reading it into a buffer first.
+     */
+    public class Cursor {
+        /**
+         * Bits of the value of every channel of every robot at the current frame.
+         */
+        private long[][] state = new long[DOUBLE_CHANNELS][robots];
+
+        /**
+         * The current frame, -1 before the first one.
+         */
+        private int frame = -1;
+
+        /**
+         * Amount of signal words of the current frame.
+         */
+        private int signalWords;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next frame.
+         *
+         * @return True if there was a next frame, false at the end of the file.
+         * @throws IOException if the file can't be read.
+         */
+        public boolean next() throws IOException {
+            if (frame + 1 >= ticks.length) {
+                return false;
+            }
+
+            FrameView view = view(++frame);
+            signalWords = view.signalWords;
+            if (state.length < DOUBLE_CHANNELS + signalWords) {
+                long[][] grown = Arrays.copyOf(state, DOUBLE_CHANNELS + signalWords);
+                for (int channel = state.length; channel < grown.length; channel++) {
+                    grown[channel] = new long[robots];
+                }
+                state = grown;
+            }
+
+            for (int channel = 0; channel < state.length; channel++) {
+                long[] values = state[channel];
+                if (view.keyframe) {
+                    Arrays.fill(values, 0);
+                }
+                if (channel >= view.widths.length || view.widths[channel] == 0) {
+                    continue;
+                }
+
+                for (int robot = 0; robot < robots; robot++) {
+                    values[robot] ^= view.delta(channel, robot);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Retrieves the index of the current frame.
+         *
+         * @return The frame.
+         */
+        public int getFrame() {
+            return frame;
+        }
+
+        /**
+         * Retrieves the tick of the current frame.
+         *
+         * @return The tick.
+         */
+        public long getTick() {
+            return ticks[frame];
+        }
+
+        /**
+         * Retrieves the x-coordinate of a robot at the current frame.
+         *
+         * @param robot The robot.
+         * @return The x-coordinate.
+         */
+        public double getX(int robot) {
+            return Double.longBitsToDouble(state[X][robot]);
+        }
+
+        /**
+         * Retrieves the y-coordinate of a robot at the current frame.
+         *
+         * @param robot The robot.
+         * @return The y-coordinate.
+         */
+        public double getY(int robot) {
+            return Double.longBitsToDouble(state[Y][robot]);
+        }
+
+        /**
+         * Retrieves the heading of a robot at the current frame.
+         *
+         * @param robot The robot.
+         * @return The heading in degrees.
+         */
+        public double getHeading(int robot) {
+            return Double.longBitsToDouble(state[HEADING][robot]);
+        }
+
+        /**
+         * Retrieves the speed of a robot at the current frame.
+         *
+         * @param robot The robot.
+         * @return The speed.
+         */
+        public double getSpeed(int robot) {
+            return Double.longBitsToDouble(state[SPEED][robot]);
+        }
+
+        /**
+         * Retrieves a word of the signal bitset of a robot at the current frame, bit i of word w standing for
+         * the signal label 64 * w + i.
+         *
+         * @param robot The robot.
+         * @param word  The index of the word.
+         * @return The word, 0 past the words of the frame.
+         */
+        public long getSignalWord(int robot, int word) {
+            return word < signalWords ? state[DOUBLE_CHANNELS + word][robot] : 0;
+        }
+    }
+
+    /**
+     * Closes the file. Mappings stay valid until they are garbage collected.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
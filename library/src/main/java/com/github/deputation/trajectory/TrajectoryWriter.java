@@ -0,0 +1,307 @@
+package com.github.deputation.trajectory;
+
+import com.github.deputation.entities.Robot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.deputation.trajectory.TrajectoryFormat.*;
+
+/**
+ * Records the trajectory of a swarm into a compact binary file, one frame per tick, in the
+ * {@link TrajectoryFormat layout} read back by a TrajectoryReader.
+ *
+ * Every frame stores the position, heading, speed and published signals of every robot as columns, delta-encoded
+ * against the previous frame, so robots at rest or done cost a fraction of a byte each. Frames are encoded straight
+ * into a direct buffer and written through a FileChannel, without formatting or allocating per robot.
+ *
+ * A writer is not thread safe. Close it to write the tick index that lets readers seek.
+ */
+public class TrajectoryWriter implements Closeable {
+    /**
+     * Size of the write buffer.
+     */
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * The file being written.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Bytes waiting to be written to the channel.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Amount of robots of every frame.
+     */
+    private final int robots;
+
+    /**
+     * Amount of frames between two keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * Bits of the value of every channel of every robot in the previous frame, indexed by channel then robot.
+     */
+    private long[][] previous;
+
+    /**
+     * Tick and file offset of every frame written.
+     */
+    private long[] ticks, offsets;
+
+    /**
+     * Amount of frames written.
+     */
+    private int frames;
+
+    /**
+     * Amount of bytes written to the channel so far.
+     */
+    private long flushed;
+
+    /**
+     * Constructs a TrajectoryWriter writing to a channel from its current position, which must be 0.
+     *
+     * @param channel          The channel of the file to write, which the writer closes.
+     * @param robots           The amount of robots of every frame.
+     * @param keyframeInterval The amount of frames between two keyframes, bounding how far back readers decode.
+     * @throws IOException if the header can't be written.
+     * @throws IllegalArgumentException if the amount of robots is negative or the interval isn't positive.
+     */
+    public TrajectoryWriter(FileChannel channel, int robots, int keyframeInterval) throws IOException {
+        if (robots < 0) {
+            throw new IllegalArgumentException("The amount of robots can't be negative.");
+        }
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("The keyframe interval must be positive.");
+        }
+
+        this.channel = channel;
+        this.robots = robots;
+        this.keyframeInterval = keyframeInterval;
+        buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        previous = new long[DOUBLE_CHANNELS][robots];
+        ticks = new long[1024];
+        offsets = new long[1024];
+
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(robots).putInt(keyframeInterval);
+    }
+
+    /**
+     * Creates a TrajectoryWriter writing to a file, replacing it if it exists.
+     *
+     * @param path   The file to write.
+     * @param robots The amount of robots of every frame.
+     * @return The writer.
+     * @throws IOException if the file can't be opened or written.
+     */
+    public static TrajectoryWriter create(Path path, int robots) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        try {
+            return new TrajectoryWriter(channel, robots, DEFAULT_KEYFRAME_INTERVAL);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the frame of a tick.
+     *
+     * @param tick  The tick, greater than the one of the previous frame.
+     * @param swarm The robots, in the same order in every frame.
+     * @throws IOException if the frame can't be written.
+     * @throws IllegalArgumentException if the swarm size changed or the tick doesn't follow the previous one.
+     */
+    public void writeFrame(long tick, List<Robot> swarm) throws IOException {
+        if (swarm.size() != robots) {
+            throw new IllegalArgumentException("Expected " + robots + " robots, got " + swarm.size() + ".");
+        }
+        if (frames > 0 && tick <= ticks[frames - 1]) {
+            throw new IllegalArgumentException("Tick " + tick + " doesn't follow tick " + ticks[frames - 1] + ".");
+        }
+
+        int signalWords = Robot.signalWords();
+        if (previous.length < DOUBLE_CHANNELS + signalWords) {
+            long[][] grown = Arrays.copyOf(previous, DOUBLE_CHANNELS + signalWords);
+            for (int channel = previous.length; channel < grown.length; channel++) {
+                grown[channel] = new long[robots];
+            }
+            previous = grown;
+        }
+
+        boolean keyframe = frames % keyframeInterval == 0;
+        long offset = position();
+        addToIndex(tick, offset);
+
+        ensureCapacity(FRAME_HEADER_BYTES);
+        buffer.putLong(tick).putInt(0).put(keyframe ? KEYFRAME : DELTA_FRAME).put((byte) signalWords).putShort((short) 0);
+
+        for (int channel = 0; channel < DOUBLE_CHANNELS + signalWords; channel++) {
+            writeColumn(swarm, channel, keyframe);
+        }
+
+        long length = position() - offset - FRAME_HEADER_BYTES;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Frame of tick " + tick + " is too large.");
+        }
+        patchInt(offset + Long.BYTES, (int) length);
+    }
+
+    /**
+     * Writes the column of a channel: the width of the deltas, then the delta of every robot.
+     */
+    private void writeColumn(List<Robot> swarm, int channel, boolean keyframe) throws IOException {
+        long[] last = previous[channel];
+        long changed = 0;
+
+        for (int robot = 0; robot < robots; robot++) {
+            changed |= bits(swarm.get(robot), channel) ^ (keyframe ? 0 : last[robot]);
+        }
+
+        int width = (Long.SIZE - Long.numberOfLeadingZeros(changed) + Byte.SIZE - 1) / Byte.SIZE;
+        ensureCapacity(1);
+        buffer.put((byte) width);
+
+        for (int robot = 0; robot < robots; robot++) {
+            long value = bits(swarm.get(robot), channel);
+            long delta = value ^ (keyframe ? 0 : last[robot]);
+            last[robot] = value;
+
+            if (width == 0) {
+                continue;
+            }
+
+            ensureCapacity(Long.BYTES);
+            if (width == Long.BYTES) {
+                buffer.putLong(delta);
+            } else {
+                for (int b = 0; b < width; b++) {
+                    buffer.put((byte) (delta >>> (b * Byte.SIZE)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the value of a channel of a robot, as bits.
+     */
+    private static long bits(Robot robot, int channel) {
+        return switch (channel) {
+            case X -> Double.doubleToRawLongBits(robot.getX());
+            case Y -> Double.doubleToRawLongBits(robot.getY());
+            case HEADING -> Double.doubleToRawLongBits(robot.getHeading());
+            case SPEED -> Double.doubleToRawLongBits(robot.getSpeed());
+            default -> robot.getPublishedSignalWord(channel - DOUBLE_CHANNELS);
+        };
+    }
+
+    /**
+     * Remembers the tick and offset of a frame for the index.
+     */
+    private void addToIndex(long tick, long offset) {
+        if (frames == ticks.length) {
+            ticks = Arrays.copyOf(ticks, frames * 2);
+            offsets = Arrays.copyOf(offsets, frames * 2);
+        }
+
+        ticks[frames] = tick;
+        offsets[frames] = offset;
+        frames++;
+    }
+
+    /**
+     * Retrieves the amount of frames written.
+     *
+     * @return The amount of frames.
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the offset in the file the next byte goes to.
+     */
+    private long position() {
+        return flushed + buffer.position();
+    }
+
+    /**
+     * Makes room in the buffer for the given amount of bytes, writing it out if needed.
+     */
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffer out to the channel.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Overwrites an int already written, in the buffer if it is still there or in the file otherwise.
+     */
+    private void patchInt(long offset, int value) throws IOException {
+        if (offset >= flushed) {
+            buffer.putInt((int) (offset - flushed), value);
+            return;
+        }
+
+        ByteBuffer patch = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(value).flip();
+        while (patch.hasRemaining()) {
+            channel.write(patch, offset + patch.position());
+        }
+    }
+
+    /**
+     * Writes the tick index, the signal labels and the trailer, then closes the file.
+     *
+     * @throws IOException if the file can't be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            long indexOffset = position();
+            for (int frame = 0; frame < frames; frame++) {
+                ensureCapacity(INDEX_ENTRY_BYTES);
+                buffer.putLong(ticks[frame]).putLong(offsets[frame]);
+            }
+
+            long labelsOffset = position();
+            int labels = Robot.signalLabels();
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(labels);
+            for (int id = 0; id < labels; id++) {
+                byte[] label = Robot.signalLabel(id).getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(Short.BYTES + label.length);
+                buffer.putShort((short) label.length).put(label);
+            }
+
+            ensureCapacity(TRAILER_BYTES);
+            buffer.putLong(indexOffset).putLong(labelsOffset).putLong(frames).putInt(TRAILER_MAGIC).putInt(0);
+            flush();
+        }
+    }
+}
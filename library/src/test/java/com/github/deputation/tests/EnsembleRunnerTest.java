@@ -0,0 +1,67 @@
+package com.github.deputation.tests;
+
+import com.github.deputation.EnsembleRunner;
+import com.github.deputation.RobotExecutionException;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnsembleRunnerTest {
+    private static final String PROGRAM = """
+            SIGNAL A
+            MOVE RANDOM 0 10 0 10 1
+            CONTINUE 5
+            FOLLOW A 5 1
+            CONTINUE 3
+            """;
+
+    private static final String ENVIRONMENT = """
+            Z1 CIRCLE 0 0 5
+            Z2 RECTANGLE 20 20 4 8
+            """;
+
+    @Test
+    void ensembleMatchesSimulationsRunOneByOne() throws FollowMeParserException, RobotExecutionException {
+        EnsembleRunner runner = EnsembleRunner.compile(PROGRAM, ENVIRONMENT, 1000, 1000, 1000);
+        List<EnsembleRunner.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            replicas.add(new EnsembleRunner.Replica(i, 10 + i * 5));
+        }
+
+        List<EnsembleRunner.Summary> summaries = new ArrayList<>();
+        EnsembleRunner.Report report = runner.run(replicas, 4, summaries::add);
+
+        assertEquals(replicas.size(), report.simulations());
+        assertTrue(report.simulationsPerSecond() > 0);
+        assertEquals(replicas.size(), summaries.size());
+
+        summaries.sort(Comparator.comparingLong(summary -> summary.replica().seed()));
+        for (EnsembleRunner.Summary summary : summaries) {
+            EnsembleRunner.Summary expected = runner.simulate(summary.replica());
+
+            assertTrue(summary.done());
+            assertEquals(expected.ticks(), summary.ticks());
+            assertEquals(expected.centroidX(), summary.centroidX());
+            assertEquals(expected.centroidY(), summary.centroidY());
+        }
+    }
+
+    @Test
+    void stopsSimulationsThatNeverFinish() throws FollowMeParserException, RobotExecutionException {
+        EnsembleRunner runner = EnsembleRunner.compile("""
+                DO FOREVER
+                MOVE RANDOM 0 10 0 10 1
+                DONE
+                """, null, 1000, 1000, 50);
+
+        EnsembleRunner.Summary summary = runner.simulate(new EnsembleRunner.Replica(7, 20));
+
+        assertFalse(summary.done());
+        assertEquals(50, summary.ticks());
+    }
+}
@@ -2,10 +2,13 @@ package com.github.deputation.tests;
 
 import com.github.deputation.RobotExecutionException;
 import com.github.deputation.RobotSpaceService;
+import com.github.deputation.TickScheduler;
+import com.github.deputation.entities.Robot;
 import it.unicam.cs.followme.utilities.FollowMeParserException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.File;
@@ -70,6 +73,41 @@ public class RobotSpaceServiceTest {
         robotSpaceService.execute(millis, millis);
     }
 
+    @Test
+    public void timeSkippingRunsTheActionAfterEveryTick() throws FollowMeParserException, RobotExecutionException {
+        String source = """
+                        MOVE 1 0.5 2
+                        CONTINUE 20
+                        STOP
+                        CONTINUE 5
+                        """;
+        RobotSpaceService skipping = new RobotSpaceService(5);
+        skipping.compileRobotProgram(source);
+        skipping.setSeed(3);
+        skipping.setTickScheduler(TickScheduler.unpaced());
+        skipping.setTimeSkipping(true);
+        robotSpaceService.compileRobotProgram(source);
+        robotSpaceService.setSeed(3);
+        robotSpaceService.setTickScheduler(TickScheduler.unpaced());
+
+        long[] actions = { 0, 0 };
+        robotSpaceService.execute(100, 100, () -> actions[0]++);
+        skipping.execute(100, 100, () -> actions[1]++);
+
+        assertEquals(actions[0], actions[1]);
+        assertEquals(robotSpaceService.getTickScheduler().getTicks(), skipping.getTickScheduler().getTicks());
+        for (int i = 0; i < 5; i++) {
+            Robot expected = robotSpaceService.getSwarm().get(i);
+            Robot actual = skipping.getSwarm().get(i);
+            assertEquals(expected.getX(), actual.getX(), 1e-9);
+            assertEquals(expected.getY(), actual.getY(), 1e-9);
+        }
+
+        // Without an action to observe them, idle stretches are jumped over, yet still paced and counted as ticks.
+        skipping.execute(100, 100);
+        assertEquals(actions[0], skipping.getTickScheduler().getTicks());
+    }
+
     @Test
     public void compileError() throws FollowMeParserException {
         assertThrows(FollowMeParserException.class, () -> {
@@ -0,0 +1,111 @@
+package com.github.deputation.tests;
+
+import com.github.deputation.LatencyHistogram;
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.RobotSpaceService;
+import com.github.deputation.TickMetrics;
+import com.github.deputation.TickScheduler;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickMetricsTest {
+    private static final String PROGRAM = """
+            SIGNAL A
+            REPEAT 3
+            MOVE 1 0 1
+            DONE
+            """;
+
+    private RobotSpaceService createService() throws FollowMeParserException {
+        RobotSpaceService service = new RobotSpaceService(10);
+        service.compileRobotProgram(PROGRAM);
+        service.setTickScheduler(TickScheduler.unpaced());
+        return service;
+    }
+
+    @Test
+    void histogramPercentilesStayWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1e-6);
+
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 50_000_000 && median <= 50_000_000L * 65 / 64, "Median " + median);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 99_000_000 && p99 <= 99_000_000L * 65 / 64, "99th percentile " + p99);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void histogramCountsSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(5);
+        histogram.record(-1);
+
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(3, histogram.getValueAtPercentile(50));
+        assertEquals(5, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void disabledMetricsRecordNothing() throws FollowMeParserException, RobotExecutionException {
+        RobotSpaceService service = createService();
+        service.execute(100, 100, () -> { });
+
+        TickMetrics.Snapshot snapshot = service.getTickMetrics().snapshot();
+        assertEquals(0, snapshot.ticks());
+        assertTrue(snapshot.phases().values().stream().allMatch(histogram -> histogram.getCount() == 0));
+        assertTrue(snapshot.instructionCounts().values().stream().allMatch(count -> count == 0));
+    }
+
+    @Test
+    void enabledMetricsRecordEveryTick() throws FollowMeParserException, RobotExecutionException {
+        RobotSpaceService service = createService();
+        service.getTickMetrics().setEnabled(true);
+        service.execute(100, 100, () -> { });
+
+        TickMetrics.Snapshot snapshot = service.getTickMetrics().snapshot();
+        assertTrue(snapshot.ticks() > 0);
+        for (TickMetrics.Phase phase : TickMetrics.Phase.values()) {
+            assertEquals(snapshot.ticks(), snapshot.phases().get(phase).getCount(), phase.name());
+        }
+
+        // Every robot signals once, enters the loop once, moves three times and leaves the loop once.
+        assertEquals(10, snapshot.instructionCounts().get("SIGNAL"));
+        assertEquals(10, snapshot.instructionCounts().get("REPEAT"));
+        assertEquals(30, snapshot.instructionCounts().get("MOVE"));
+        assertEquals(10, snapshot.robotsDone());
+        assertEquals(10, snapshot.signalingRobots());
+    }
+
+    @Test
+    void metricsAreReadableOverJmx() throws Exception {
+        RobotSpaceService service = createService();
+        ObjectName name = service.getTickMetrics().register("test");
+        service.getTickMetrics().setEnabled(true);
+        service.execute(100, 100);
+
+        Object ticks = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Ticks");
+        assertEquals(service.getTickMetrics().getTicks(), ticks);
+
+        ManagementFactory.getPlatformMBeanServer().invoke(name, "reset", null, null);
+        assertEquals(0, service.getTickMetrics().getTicks());
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.deputation.tests;
+
+import com.github.deputation.TickScheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickSchedulerTest {
+    private static final long MILLISECOND = 1_000_000;
+
+    @Test
+    void recordsOverrunsAndRestartsThePeriod() {
+        long[] now = { 0 };
+        TickScheduler scheduler = new TickScheduler(true, () -> now[0]);
+        scheduler.start(10);
+
+        now[0] = 15 * MILLISECOND;
+        scheduler.awaitNextTick();
+        now[0] = 40 * MILLISECOND;
+        scheduler.awaitNextTick();
+
+        assertEquals(2, scheduler.getTicks());
+        assertEquals(2, scheduler.getOverruns());
+        assertEquals(20 * MILLISECOND, scheduler.getTotalOverrunNanos());
+        assertEquals(15 * MILLISECOND, scheduler.getMaxOverrunNanos());
+    }
+
+    @Test
+    void waitsForTheDeadlinesAtAFixedRate() {
+        long[] now = { 0 };
+        TickScheduler scheduler = new TickScheduler(true, () -> now[0] += 3 * MILLISECOND);
+        scheduler.start(10);
+
+        // Every tick reads the clock once before waiting, so the deadlines stay 10 ms apart from the start at 3 ms.
+        scheduler.awaitNextTick();
+        assertTrue(now[0] >= 13 * MILLISECOND && now[0] < 16 * MILLISECOND);
+        scheduler.awaitNextTick();
+        assertTrue(now[0] >= 23 * MILLISECOND && now[0] < 26 * MILLISECOND);
+        assertEquals(0, scheduler.getOverruns());
+    }
+
+    @Test
+    void waitsForEveryTickJumpedOver() {
+        long[] now = { 0 };
+        TickScheduler scheduler = new TickScheduler(true, () -> now[0] += 3 * MILLISECOND);
+        scheduler.start(10);
+
+        scheduler.awaitTicks(4);
+        assertTrue(now[0] >= 43 * MILLISECOND && now[0] < 46 * MILLISECOND);
+        scheduler.awaitNextTick();
+        assertTrue(now[0] >= 53 * MILLISECOND && now[0] < 56 * MILLISECOND);
+        assertEquals(5, scheduler.getTicks());
+        assertEquals(0, scheduler.getOverruns());
+        assertThrows(IllegalArgumentException.class, () -> scheduler.awaitTicks(0));
+    }
+
+    @Test
+    void unpacedNeverWaits() {
+        long[] now = { 0 };
+        TickScheduler scheduler = new TickScheduler(false, () -> now[0] += MILLISECOND);
+        scheduler.start(1000);
+
+        for (int i = 0; i < 5; i++) {
+            scheduler.awaitNextTick();
+        }
+
+        assertEquals(5, scheduler.getTicks());
+        assertEquals(0, scheduler.getOverruns());
+        assertEquals(0, now[0]);
+    }
+
+    @Test
+    void rejectsNegativePeriods() {
+        assertThrows(IllegalArgumentException.class, () -> TickScheduler.unpaced().start(-1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.deputation.tests.entities;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.instructions.ContinueInstruction;
+import com.github.deputation.instructions.DoForeverInstruction;
+import com.github.deputation.instructions.FollowInstruction;
+import com.github.deputation.instructions.MoveInstruction;
+import com.github.deputation.instructions.SignalInstruction;
+import com.github.deputation.instructions.StopInstruction;
+import com.github.deputation.instructions.UnsignalInstruction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RobotAllocationTest {
+
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int MEASURED_TICKS = 10_000;
+
+    @Test
+    void steadyStateTickDoesNotAllocate() throws RobotExecutionException {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+
+        Robot neighbour = new Robot();
+        neighbour.Signal("A");
+
+        Robot robot = new Robot();
+        robot.inputSignalingRobots(List.of(neighbour));
+        robot.program(List.of(new DoForeverInstruction(List.of(
+                new MoveInstruction(new double[] { 1, 2, 3 }),
+                new StopInstruction(),
+                new ContinueInstruction(1),
+                new SignalInstruction("A"),
+                new UnsignalInstruction("A"),
+                new FollowInstruction("A", new double[] { 5, 1 })))));
+
+        runTicks(robot, WARMUP_TICKS);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        runTicks(robot, MEASURED_TICKS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0, allocated, "Bytes allocated over " + MEASURED_TICKS + " ticks");
+    }
+
+    private static void runTicks(Robot robot, int ticks) throws RobotExecutionException {
+        for (int i = 0; i < ticks; i++) {
+            robot.tick(1000, 100);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "The JVM can't count allocated bytes");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        // The counter allocates on its first call, so get that out of the way before measuring.
+        threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        return threads;
+    }
+}
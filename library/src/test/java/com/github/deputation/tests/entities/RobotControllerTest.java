@@ -0,0 +1,255 @@
+package com.github.deputation.tests.entities;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.HeapSwarmState;
+import com.github.deputation.entities.OffHeapSwarmState;
+import com.github.deputation.entities.ParallelTickEngine;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.entities.SequentialTickEngine;
+import com.github.deputation.entities.SwarmState;
+import com.github.deputation.entities.TickEngine;
+import com.github.deputation.labels.Circle;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.labels.Rectangle;
+import com.github.deputation.language.CompiledProgram;
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobotControllerTest {
+    private static final String PROGRAM = """
+            SIGNAL A
+            MOVE 1 0 1
+            REPEAT 3
+            FOLLOW A 1000 2
+            DONE
+            UNSIGNAL A
+            SIGNAL B
+            FOLLOW B 1000 1
+            """;
+
+    private RobotController createController(int robots, TickEngine engine) throws FollowMeParserException, RobotExecutionException {
+        return createController(new HeapSwarmState(robots), engine);
+    }
+
+    private RobotController createController(SwarmState state, TickEngine engine) throws FollowMeParserException, RobotExecutionException {
+        return createController(state, engine, PROGRAM);
+    }
+
+    private RobotController createController(SwarmState state, TickEngine engine, String source) throws FollowMeParserException, RobotExecutionException {
+        RobotProgram program = new RobotProgram();
+        new FollowMeParser(program).parseRobotProgram(source);
+
+        int robots = state.getCapacity();
+        RobotController controller = new RobotController(state);
+        List<Robot> swarm = controller.getSwarm();
+        for (int i = 0; i < robots; i++) {
+            swarm.get(i).setX(i % 50);
+            swarm.get(i).setY(i / 50);
+        }
+
+        controller.setTickEngine(engine);
+        controller.programSwarm(program.getCompiledProgram());
+        return controller;
+    }
+
+    @Test
+    void parallelTickMatchesSequentialTick() throws FollowMeParserException, RobotExecutionException {
+        int robots = 2000;
+        RobotController sequential = createController(robots, new SequentialTickEngine());
+        RobotController parallel = createController(robots, new ParallelTickEngine(ForkJoinPool.commonPool(), 16));
+
+        while (!sequential.isSwarmDone()) {
+            sequential.tick(1000, 1000);
+            parallel.tick(1000, 1000);
+        }
+
+        assertTrue(parallel.isSwarmDone());
+        assertSameSwarm(sequential, parallel);
+    }
+
+    @Test
+    void swarmSharesOneCompiledProgram() throws FollowMeParserException, RobotExecutionException {
+        RobotController controller = createController(100, new SequentialTickEngine());
+        CompiledProgram program = controller.getSwarm().get(0).getProgram();
+
+        assertTrue(controller.getSwarm().stream().allMatch(robot -> robot.getProgram() == program));
+        assertThrows(UnsupportedOperationException.class, () -> program.getInstructions().clear());
+    }
+
+    @Test
+    void offHeapStateMatchesHeapState() throws FollowMeParserException, RobotExecutionException {
+        int robots = 500;
+        RobotController heap = createController(new HeapSwarmState(robots), new SequentialTickEngine());
+        RobotController offHeap = createController(new OffHeapSwarmState(robots), new SequentialTickEngine());
+
+        while (!heap.isSwarmDone()) {
+            heap.tick(1000, 1000);
+            offHeap.tick(1000, 1000);
+        }
+
+        assertTrue(offHeap.isSwarmDone());
+        assertSameSwarm(heap, offHeap);
+    }
+
+    @Test
+    void skippingIdleTicksMatchesTicking() throws FollowMeParserException, RobotExecutionException {
+        String source = """
+                SIGNAL A
+                MOVE 1 0.5 2
+                CONTINUE 20
+                FOLLOW A 5 1
+                CONTINUE 7
+                STOP
+                CONTINUE 5
+                MOVE 0 0.12 0.05
+                CONTINUE 4
+                UNSIGNAL A
+                """;
+        RobotController ticking = createController(new HeapSwarmState(100), new SequentialTickEngine(), source);
+        RobotController skipping = createController(new HeapSwarmState(100), new SequentialTickEngine(), source);
+
+        while (!ticking.isSwarmDone()) {
+            ticking.tick(1000, 1000);
+        }
+
+        int steps = 0;
+        while (!skipping.isSwarmDone()) {
+            if (skipping.skipIdleTicks(1000, 1000) == 0) {
+                skipping.tick(1000, 1000);
+            }
+            steps++;
+        }
+
+        assertEquals(ticking.getTicks(), skipping.getTicks());
+        assertTrue(steps < skipping.getTicks());
+        assertSameCoastedSwarm(ticking, skipping);
+
+        // The robot inside Z runs END while the other one starts to CONTINUE: END does not repeat the last move,
+        // so the tick after it moves the robot towards the target set the tick before.
+        source = """
+                MOVE 1 0 0.6
+                UNTIL Z
+                CONTINUE 5
+                DONE
+                """;
+        Environment environment = new Environment(List.of(new Circle("Z", 0, 0, 1)));
+        ticking = createController(new HeapSwarmState(2), new SequentialTickEngine(), source);
+        skipping = createController(new HeapSwarmState(2), new SequentialTickEngine(), source);
+        for (RobotController controller : List.of(ticking, skipping)) {
+            for (int i = 0; i < 2; i++) {
+                Robot robot = controller.getSwarm().get(i);
+                robot.setEnvironment(environment);
+                robot.setX(i);
+                robot.setY(0);
+            }
+        }
+
+        while (ticking.getTicks() < 20) {
+            ticking.tick(1000, 1000);
+        }
+        while (skipping.getTicks() < 20) {
+            if (skipping.skipIdleTicks(1000, 1000, 20 - skipping.getTicks()) == 0) {
+                skipping.tick(1000, 1000);
+            }
+        }
+
+        assertSameCoastedSwarm(ticking, skipping);
+    }
+
+    @Test
+    void seededSwarmsAreReproducible() throws FollowMeParserException, RobotExecutionException {
+        String source = """
+                MOVE RANDOM 0 10 0 10 1
+                CONTINUE 2
+                FOLLOW Z 3 1
+                CONTINUE 2
+                """;
+        Environment environment = new Environment(List.of(
+                new Circle("A", 0, 0, 5), new Rectangle("B", 20, 20, 4, 8)));
+        int robots = 1000;
+        RobotController sequential = createController(new HeapSwarmState(robots), new SequentialTickEngine(), source);
+        RobotController parallel = createController(new HeapSwarmState(robots),
+                new ParallelTickEngine(ForkJoinPool.commonPool(), 16), source);
+
+        for (RobotController controller : List.of(sequential, parallel)) {
+            controller.seed(42);
+            controller.getSwarm().forEach(robot -> robot.setEnvironment(environment));
+        }
+
+        while (!sequential.isSwarmDone()) {
+            sequential.tick(1000, 1000);
+            parallel.tick(1000, 1000);
+        }
+
+        assertSameSwarm(sequential, parallel);
+        assertNotEquals(sequential.getSwarm().get(0).getX(), sequential.getSwarm().get(1).getX());
+    }
+
+    private static void assertSameSwarm(RobotController expectedController, RobotController actualController) {
+        int robots = expectedController.getSwarm().size();
+        assertEquals(robots, actualController.getSwarm().size());
+
+        for (int i = 0; i < robots; i++) {
+            Robot expected = expectedController.getSwarm().get(i);
+            Robot actual = actualController.getSwarm().get(i);
+
+            assertEquals(expected.getX(), actual.getX());
+            assertEquals(expected.getY(), actual.getY());
+            assertEquals(expected.getTargetX(), actual.getTargetX());
+            assertEquals(expected.getTargetY(), actual.getTargetY());
+            assertEquals(expected.getHeading(), actual.getHeading());
+            assertEquals(expected.getSignals(), actual.getSignals());
+        }
+    }
+
+    private static void assertSameCoastedSwarm(RobotController expectedController, RobotController actualController) {
+        int robots = expectedController.getSwarm().size();
+        assertEquals(robots, actualController.getSwarm().size());
+
+        for (int i = 0; i < robots; i++) {
+            Robot expected = expectedController.getSwarm().get(i);
+            Robot actual = actualController.getSwarm().get(i);
+
+            assertEquals(expected.getX(), actual.getX(), 1e-9);
+            assertEquals(expected.getY(), actual.getY(), 1e-9);
+            assertEquals(expected.getHeading(), actual.getHeading(), 1e-9);
+            assertEquals(expected.getSignals(), actual.getSignals());
+        }
+    }
+
+    @Test
+    void robotsObservePublishedStateOnly() {
+        RobotController controller = new RobotController(2);
+        Robot robot = controller.getSwarm().get(0);
+
+        robot.Signal("A");
+
+        assertTrue(robot.getSignals().contains("A"));
+        assertTrue(robot.getPublishedSignals().isEmpty());
+    }
+
+    @Test
+    void signalIndexFollowsPublishedSignals() throws FollowMeParserException, RobotExecutionException {
+        RobotController controller = createController(10, new SequentialTickEngine());
+
+        controller.tick(1000, 1000);
+        assertEquals(10, controller.getSignalIndex().getSignalingRobots("A").size());
+        assertTrue(controller.getSignalIndex().getSignalingRobots("B").isEmpty());
+
+        while (!controller.isSwarmDone()) {
+            controller.tick(1000, 1000);
+        }
+
+        assertTrue(controller.getSignalIndex().getSignalingRobots("A").isEmpty());
+        assertEquals(10, controller.getSignalIndex().getSignalingRobots("B").size());
+        assertEquals(9, controller.getSwarm().get(0).getSignalingRobots().size());
+    }
+}
@@ -3,7 +3,12 @@ package com.github.deputation.tests.entities;
 import com.github.deputation.RobotExecutionException;
 import com.github.deputation.entities.Robot;
 import com.github.deputation.instructions.MoveInstruction;
+import com.github.deputation.instructions.RepeatInstruction;
 import com.github.deputation.instructions.RobotInstruction;
+import com.github.deputation.instructions.SignalInstruction;
+import com.github.deputation.instructions.UnsignalInstruction;
+import com.github.deputation.instructions.UntilInstruction;
+import com.github.deputation.labels.Circle;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -69,6 +74,54 @@ class RobotTest {
         assertTrue(robot.isRobotDone());
     }
 
+    @Test
+    void repeatTakesAsLongAsItsBodyWrittenOut() throws RobotExecutionException {
+        RobotInstruction signal = new SignalInstruction("A");
+        robot.program(List.of(new RepeatInstruction(3, List.of(signal, new UnsignalInstruction("A")))));
+
+        // Entering the loop, 3 iterations of 2 instructions, leaving the loop, END.
+        for (int i = 0; i < 8; i++) {
+            assertFalse(robot.isRobotDone());
+            robot.tick(1, 1);
+        }
+        assertFalse(robot.isRobotDone());
+        robot.tick(1, 1);
+        assertTrue(robot.isRobotDone());
+    }
+
+    @Test
+    void hugeNestedRepeatRunsInConstantMemory() throws RobotExecutionException {
+        List<RobotInstruction> body = List.of(new SignalInstruction("A"), new UnsignalInstruction("A"));
+        robot.program(List.of(new RepeatInstruction(1_000_000,
+                List.of(new RepeatInstruction(1_000_000, body)))));
+
+        // Each inner round takes its entry, 2 instructions per iteration and its exit.
+        for (int i = 0; i < 10_000; i++) {
+            robot.tick(1, 1);
+        }
+
+        assertFalse(robot.isRobotDone());
+        assertTrue(robot.getSignals().isEmpty());
+    }
+
+    @Test
+    void untilResumesAfterTheLoop() throws RobotExecutionException {
+        robot.setEnvironmentalData(List.of(new Circle("Z", 5, 0, 1)));
+        robot.setX(0);
+        robot.setY(0);
+        robot.program(List.of(
+                new UntilInstruction("Z", List.of(new MoveInstruction(new double[]{1, 0, 1}))),
+                new SignalInstruction("ARRIVED")));
+
+        for (int i = 0; i < 20 && !robot.isRobotDone(); i++) {
+            robot.tick(1, 1000);
+        }
+
+        assertTrue(robot.isRobotDone());
+        assertTrue(robot.getSignals().contains("ARRIVED"));
+        assertEquals("Z", robot.getEnvironmentalLabel().orElseThrow());
+    }
+
     @Test
     void Move() {
         robot.setX(5);
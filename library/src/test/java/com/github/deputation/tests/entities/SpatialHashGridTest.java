@@ -0,0 +1,78 @@
+package com.github.deputation.tests.entities;
+
+import com.github.deputation.entities.SpatialHashGrid;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialHashGridTest {
+    private static final int POINTS = 2000;
+
+    private SpatialHashGrid<Integer> grid;
+    private double[] xs;
+    private double[] ys;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        grid = new SpatialHashGrid<>(2.0);
+        xs = new double[POINTS];
+        ys = new double[POINTS];
+
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextDouble(-50, 50);
+            ys[i] = random.nextDouble(-50, 50);
+            grid.add(i, xs[i], ys[i]);
+        }
+        grid.build();
+    }
+
+    private Set<Integer> bruteForce(double x, double y, double radius) {
+        Set<Integer> found = new HashSet<>();
+        for (int i = 0; i < POINTS; i++) {
+            double deltaX = xs[i] - x;
+            double deltaY = ys[i] - y;
+            if (Math.sqrt(deltaX * deltaX + deltaY * deltaY) <= radius) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    private Set<Integer> query(double x, double y, double radius) {
+        Set<Integer> found = new HashSet<>();
+        grid.query(x, y, radius, (item, itemX, itemY) -> assertTrue(found.add(item), "Item visited twice"));
+        return found;
+    }
+
+    @Test
+    void queryMatchesBruteForce() {
+        Random random = new Random(7);
+        for (double radius : new double[]{0.5, 2.0, 5.0, 30.0, 500.0}) {
+            for (int q = 0; q < 50; q++) {
+                double x = random.nextDouble(-60, 60);
+                double y = random.nextDouble(-60, 60);
+                assertEquals(bruteForce(x, y, radius), query(x, y, radius));
+            }
+        }
+    }
+
+    @Test
+    void clearEmptiesTheGrid() {
+        grid.clear();
+        grid.build();
+
+        assertEquals(0, grid.size());
+        assertTrue(query(0, 0, 1000).isEmpty());
+    }
+
+    @Test
+    void rejectsNonPositiveCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SpatialHashGrid<Integer>(0));
+    }
+}
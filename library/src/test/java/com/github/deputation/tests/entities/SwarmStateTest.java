@@ -0,0 +1,146 @@
+package com.github.deputation.tests.entities;
+
+import com.github.deputation.entities.HeapSwarmState;
+import com.github.deputation.entities.OffHeapSwarmState;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.entities.SwarmState;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwarmStateTest {
+
+    @Test
+    void robotsAreViewsOverTheSharedState() {
+        RobotController controller = new RobotController(3);
+        SwarmState state = controller.getSwarmState();
+
+        for (int i = 0; i < 3; i++) {
+            Robot robot = controller.getSwarm().get(i);
+            assertSame(state, robot.getSwarmState());
+            assertEquals(i, robot.getId());
+
+            robot.setX(i * 10);
+            assertEquals(i * 10, state.getX(i));
+        }
+
+        controller.getSwarm().get(1).Move(new double[]{3, 4}, 10);
+        assertEquals(13, state.getTargetX(1));
+        assertEquals(4, state.getTargetY(1));
+        assertEquals(0, state.getSpeed(0));
+        assertEquals(10, state.getSpeed(1));
+        assertEquals(0, state.getSpeed(2));
+    }
+
+    @Test
+    void rangeTickMatchesStandaloneEntities() {
+        SwarmState state = new HeapSwarmState(2);
+        Robot first = new Robot(state, 0);
+        Robot second = new Robot(state, 1);
+        Robot standalone = new Robot();
+
+        first.Move(new double[]{5, -2}, 1.5);
+        second.Move(new double[]{-7, 3}, 2);
+        standalone.Move(new double[]{-7, 3}, 2);
+
+        for (int i = 0; i < 10; i++) {
+            state.tick(0, 2, 250);
+            standalone.updateHeading();
+            standalone.updatePosition(250);
+        }
+
+        assertEquals(standalone.getX(), second.getX());
+        assertEquals(standalone.getY(), second.getY());
+        assertEquals(standalone.getHeading(), second.getHeading());
+        assertNotEquals(first.getX(), second.getX());
+    }
+
+    @Test
+    void movesInOneExactStep() {
+        SwarmState state = new HeapSwarmState(2);
+        state.setTargetX(0, 10);
+        state.setSpeed(0, 2);
+        state.setTargetX(1, 0.6);
+        state.setTargetY(1, 0.8);
+        state.setSpeed(1, 10);
+
+        state.tick(0, 2, 1000);
+
+        assertEquals(2, state.getX(0));
+        assertEquals(0, state.getY(0));
+        assertEquals(0, state.getHeading(0));
+        assertEquals(2, state.getSpeed(0));
+
+        // Moving 10 m towards a target 1 m away passes it, so the entity arrives instead of overshooting.
+        assertEquals(0.6, state.getX(1));
+        assertEquals(0.8, state.getY(1));
+        assertEquals(0, state.getSpeed(1));
+        assertEquals(10, state.getLastSpeed(1));
+    }
+
+    @Test
+    void arrivesWithinTheArrivalDistance() {
+        SwarmState state = new HeapSwarmState(1);
+        state.setTargetX(0, 1);
+        state.setSpeed(0, 0.95);
+
+        state.tick(0, 1, 1000);
+
+        assertEquals(1, state.getX(0));
+        assertEquals(0, state.getSpeed(0));
+    }
+
+    @Test
+    void storesKeepTheProcessorState() {
+        for (SwarmState state : new SwarmState[] { new HeapSwarmState(3), new OffHeapSwarmState(3) }) {
+            state.ensureRepeatLevels(1);
+            state.setRepeatCounter(2, 0, 7);
+            state.ensureRepeatLevels(3);
+            state.setRepeatCounter(1, 2, 5);
+            assertEquals(3, state.getRepeatLevels());
+            assertEquals(7, state.getRepeatCounter(2, 0));
+            assertEquals(5, state.getRepeatCounter(1, 2));
+            assertEquals(0, state.getRepeatCounter(0, 0));
+
+            Robot robot = new Robot(state, 1);
+            robot.Move(new double[]{3, 4}, 2);
+            robot.Signal("processor state");
+            assertTrue(state.hasLastMove(1));
+            assertEquals(3, state.getLastMoveX(1));
+            assertEquals(4, state.getLastMoveY(1));
+            assertEquals(2, state.getLastMoveSpeed(1));
+            assertTrue(state.isSignalsChanged(1));
+            assertNotEquals(0, state.getSignals(1));
+
+            robot.Stop();
+            assertFalse(state.hasLastMove(1));
+        }
+    }
+
+    @Test
+    void randomSourcesLiveInTheState() {
+        SwarmState heap = new HeapSwarmState(2);
+        SwarmState offHeap = new OffHeapSwarmState(2);
+        SplittableRandom heapRoot = new SplittableRandom(42);
+        SplittableRandom offHeapRoot = new SplittableRandom(42);
+
+        for (int id = 0; id < 2; id++) {
+            heap.seedRandom(id, heapRoot);
+            offHeap.seedRandom(id, offHeapRoot);
+        }
+
+        assertEquals(heap.nextRandomLong(1), offHeap.nextRandomLong(1));
+        assertEquals(new Robot(heap, 0).getRandom().nextDouble(), new Robot(offHeap, 0).getRandom().nextDouble());
+        assertNotEquals(heap.nextRandomLong(0), heap.nextRandomLong(1));
+    }
+
+    @Test
+    void viewsMustFitInTheState() {
+        assertThrows(IndexOutOfBoundsException.class, () -> new Robot(new HeapSwarmState(2), 2));
+        assertThrows(IllegalArgumentException.class, () -> new HeapSwarmState(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapSwarmState(OffHeapSwarmState.MAX_CAPACITY + 1));
+    }
+}
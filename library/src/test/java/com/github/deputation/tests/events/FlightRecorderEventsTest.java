@@ -0,0 +1,74 @@
+package com.github.deputation.tests.events;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.RobotSpaceService;
+import com.github.deputation.TickScheduler;
+import com.github.deputation.events.InstructionExecutionEvent;
+import com.github.deputation.events.ProgramLoadEvent;
+import com.github.deputation.events.SimulationTickEvent;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+    private static final String PROGRAM = """
+            SIGNAL A
+            REPEAT 3
+            MOVE 1 0 1
+            DONE
+            """;
+
+    private List<RecordedEvent> record(Path file) throws IOException, FollowMeParserException, RobotExecutionException {
+        RobotSpaceService service = new RobotSpaceService(2048);
+        service.compileRobotProgram(PROGRAM);
+        service.setTickScheduler(TickScheduler.unpaced());
+
+        try (Recording recording = new Recording()) {
+            recording.enable(SimulationTickEvent.class);
+            recording.enable(ProgramLoadEvent.class);
+            recording.enable(InstructionExecutionEvent.class);
+            recording.start();
+            service.execute(100, 100, () -> { });
+            recording.stop();
+            recording.dump(file);
+        }
+
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    void recordsTicksProgramLoadsAndSampledInstructions(@TempDir Path directory)
+            throws IOException, FollowMeParserException, RobotExecutionException {
+        List<RecordedEvent> events = record(directory.resolve("simulation.jfr"));
+
+        List<RecordedEvent> loads = ofType(events, "com.github.deputation.ProgramLoad");
+        assertEquals(1, loads.size());
+        assertEquals(2048, loads.get(0).getInt("robots"));
+        assertEquals(1, loads.get(0).getInt("maxRepeatDepth"));
+
+        List<RecordedEvent> ticks = ofType(events, "com.github.deputation.SimulationTick");
+        assertFalse(ticks.isEmpty());
+        for (RecordedEvent tick : ticks) {
+            assertEquals(2048, tick.getInt("robots"));
+            assertTrue(tick.getDuration("processor").toNanos() > 0);
+        }
+
+        // Two robots in 2048 are sampled every tick.
+        List<RecordedEvent> instructions = ofType(events, "com.github.deputation.InstructionExecution");
+        assertEquals(2L * ticks.size(), instructions.size());
+        assertTrue(instructions.stream().anyMatch(event -> "MOVE".equals(event.getString("opcode"))));
+    }
+}
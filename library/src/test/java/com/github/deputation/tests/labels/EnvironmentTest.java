@@ -0,0 +1,95 @@
+package com.github.deputation.tests.labels;
+
+import com.github.deputation.labels.Circle;
+import com.github.deputation.labels.Environment;
+import com.github.deputation.labels.Rectangle;
+import com.github.deputation.labels.Shape;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnvironmentTest {
+    private Environment environment;
+
+    @BeforeEach
+    public void setUp() {
+        environment = new Environment(List.of(
+                new Circle("A", 0.0, 0.0, 2.0),
+                new Rectangle("B", 0.0, 0.0, 10.0, 10.0)));
+    }
+
+    @Test
+    public void testFirstShapeWins() {
+        assertEquals(Optional.of("A"), environment.getLabel(0.5, 0.5));
+        assertEquals(Optional.of("B"), environment.getLabel(4.0, 4.0));
+        assertTrue(environment.hasLabel("A", 0.5, 0.5));
+        assertFalse(environment.hasLabel("B", 0.5, 0.5));
+    }
+
+    @Test
+    public void testOutsideEveryShape() {
+        assertEquals(Optional.empty(), environment.getLabel(100.0, 100.0));
+        assertNull(environment.findShape(100.0, 100.0));
+        assertFalse(environment.hasLabel("A", 100.0, 100.0));
+    }
+
+    @Test
+    public void testIndexesMatchLinearScan() {
+        Random random = new Random(42);
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            double size = 1 + random.nextDouble() * 50;
+            shapes.add(random.nextBoolean()
+                    ? new Circle("C" + i, x, y, size)
+                    : new Rectangle("R" + i, x, y, size, size / 2));
+        }
+
+        Environment linear = new Environment(shapes, Environment.IndexMode.LINEAR);
+        Environment bvh = new Environment(shapes, Environment.IndexMode.BVH);
+        Environment raster = new Environment(shapes, Environment.IndexMode.RASTER, 7.5);
+
+        for (int i = 0; i < 20000; i++) {
+            double x = random.nextDouble() * 1100 - 50;
+            double y = random.nextDouble() * 1100 - 50;
+            assertSame(linear.findShape(x, y), bvh.findShape(x, y));
+            assertSame(linear.findShape(x, y), raster.findShape(x, y));
+        }
+    }
+
+    @Test
+    public void testRasterCellCoveredByLaterShape() {
+        Environment raster = new Environment(List.of(
+                new Circle("A", 0.0, 0.0, 0.5),
+                new Rectangle("B", 0.0, 0.0, 100.0, 100.0)), Environment.IndexMode.RASTER, 10.0);
+
+        assertEquals(Optional.of("A"), raster.getLabel(0.1, 0.1));
+        assertEquals(Optional.of("B"), raster.getLabel(1.0, 1.0));
+        assertEquals(Optional.of("B"), raster.getLabel(45.0, -45.0));
+        assertEquals(Optional.empty(), raster.getLabel(51.0, 0.0));
+    }
+
+    @Test
+    public void testRasterTooFine() {
+        List<Shape> shapes = List.of(new Rectangle("A", 0.0, 0.0, 1e6, 1e6));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Environment(shapes, Environment.IndexMode.RASTER, 1.0));
+    }
+
+    @Test
+    public void testShapesAreCopied() {
+        List<Shape> shapes = new ArrayList<>(List.of(new Circle("A", 0.0, 0.0, 1.0)));
+        Environment copy = new Environment(shapes);
+        shapes.clear();
+
+        assertEquals(1, copy.getShapes().size());
+        assertThrows(UnsupportedOperationException.class, () -> copy.getShapes().clear());
+    }
+}
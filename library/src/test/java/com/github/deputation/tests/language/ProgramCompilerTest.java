@@ -0,0 +1,129 @@
+package com.github.deputation.tests.language;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.instructions.Opcode;
+import com.github.deputation.instructions.RepeatInstruction;
+import com.github.deputation.instructions.RobotInstruction;
+import com.github.deputation.language.Bytecode;
+import com.github.deputation.language.ProgramCompiler;
+import com.github.deputation.language.RobotContext;
+import com.github.deputation.language.RobotProgram;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProgramCompilerTest {
+    private static List<RobotInstruction> parse(String source) throws FollowMeParserException {
+        RobotProgram program = new RobotProgram();
+        new FollowMeParser(program).parseRobotProgram(source);
+        return program.getCompiledProgram().getInstructions();
+    }
+
+    @Test
+    public void testLoopsAreLaidOutInline() throws FollowMeParserException {
+        Bytecode bytecode = new ProgramCompiler().compile(parse("""
+                MOVE 1 0 1
+                REPEAT 3
+                SIGNAL A
+                UNTIL Z
+                STOP
+                DONE
+                DONE
+                DO FOREVER
+                CONTINUE 2
+                DONE
+                """));
+
+        assertArrayEquals(new int[]{
+                Bytecode.MOVE, 0,               // 0
+                Bytecode.REPEAT, 3, 15,         // 2
+                Bytecode.SIGNAL, 1,             // 5
+                Bytecode.UNTIL, 0, 15,          // 7
+                Bytecode.STOP, 2,               // 10
+                Bytecode.UNTIL_END, 0, 10,      // 12
+                Bytecode.REPEAT_END, 5,         // 15
+                Bytecode.DO_FOREVER,            // 17
+                Bytecode.CONTINUE, 3,           // 18
+                Bytecode.FOREVER_END, 18,       // 20
+                Bytecode.END                    // 22
+        }, bytecode.getCode());
+        assertEquals("Z", bytecode.getLabel(0));
+        assertEquals(Opcode.SIGNAL, bytecode.getInstruction(1).getOpcode());
+        assertEquals(Opcode.CONTINUE, bytecode.getInstruction(3).getOpcode());
+    }
+
+    @Test
+    public void testEmptyProgramTerminates() {
+        Bytecode bytecode = new ProgramCompiler().compile(List.of());
+
+        assertArrayEquals(new int[]{Bytecode.END}, bytecode.getCode());
+        assertEquals(0, bytecode.getMaxRepeatDepth());
+    }
+
+    @Test
+    public void testLeafOpcodesMatchTheOpcodeOrdinals() {
+        assertEquals(Opcode.MOVE.ordinal(), Bytecode.MOVE);
+        assertEquals(Opcode.MOVE_RANDOM.ordinal(), Bytecode.MOVE_RANDOM);
+        assertEquals(Opcode.SIGNAL.ordinal(), Bytecode.SIGNAL);
+        assertEquals(Opcode.UNSIGNAL.ordinal(), Bytecode.UNSIGNAL);
+        assertEquals(Opcode.FOLLOW.ordinal(), Bytecode.FOLLOW);
+        assertEquals(Opcode.STOP.ordinal(), Bytecode.STOP);
+        assertEquals(Opcode.CONTINUE.ordinal(), Bytecode.CONTINUE);
+    }
+
+    @Test
+    public void testRepeatDepthIsTheDeepestNesting() throws FollowMeParserException {
+        Bytecode bytecode = new ProgramCompiler().compile(parse("""
+                REPEAT 1000000
+                REPEAT 1000000
+                STOP
+                DONE
+                UNTIL Z
+                REPEAT 2
+                REPEAT 3
+                STOP
+                DONE
+                DONE
+                DONE
+                DONE
+                REPEAT 5
+                STOP
+                DONE
+                """));
+
+        assertEquals(3, bytecode.getMaxRepeatDepth());
+    }
+
+    @Test
+    public void testLoopsCanOnlyRunCompiled() {
+        RobotInstruction repeat = new RepeatInstruction(2, List.of());
+
+        assertThrows(RobotExecutionException.class, () -> repeat.execute(new Robot()));
+    }
+
+    @Test
+    public void testLoopsMustBeLoopInstructions() {
+        RobotInstruction unknown = new RobotInstruction() {
+            @Override
+            public void execute(RobotContext context) {
+            }
+
+            @Override
+            public String getInstructionType() {
+                return "REPEAT";
+            }
+
+            @Override
+            public Opcode getOpcode() {
+                return Opcode.REPEAT;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> new ProgramCompiler().compile(List.of(unknown)));
+    }
+}
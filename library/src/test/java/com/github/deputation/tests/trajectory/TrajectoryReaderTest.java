@@ -0,0 +1,148 @@
+package com.github.deputation.tests.trajectory;
+
+import com.github.deputation.RobotExecutionException;
+import com.github.deputation.RobotSpaceService;
+import com.github.deputation.TickScheduler;
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.language.RobotProgram;
+import com.github.deputation.trajectory.TrajectoryReader;
+import com.github.deputation.trajectory.TrajectoryWriter;
+import it.unicam.cs.followme.utilities.FollowMeParser;
+import it.unicam.cs.followme.utilities.FollowMeParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrajectoryReaderTest {
+    private static final String PROGRAM = """
+            SIGNAL WALKER
+            REPEAT 200
+            MOVE RANDOM -5 5 -5 5 1
+            DONE
+            UNSIGNAL WALKER
+            """;
+
+    private static final int ROBOTS = 20;
+    private static final int FRAMES = 150;
+
+    /**
+     * Positions of every robot at every frame, as recorded, indexed by frame then robot.
+     */
+    private double[][] xs, ys;
+
+    private Path record(Path file, long tickStep) throws FollowMeParserException, RobotExecutionException, IOException {
+        RobotProgram program = new RobotProgram();
+        new FollowMeParser(program).parseRobotProgram(PROGRAM);
+
+        RobotController controller = new RobotController(ROBOTS);
+        controller.seed(7);
+        controller.programSwarm(program.getCompiledProgram());
+        List<Robot> swarm = controller.getSwarm();
+
+        xs = new double[FRAMES][ROBOTS];
+        ys = new double[FRAMES][ROBOTS];
+        try (TrajectoryWriter writer = TrajectoryWriter.create(file, ROBOTS)) {
+            for (int frame = 0; frame < FRAMES; frame++) {
+                controller.tick(1000, 1000);
+                writer.writeFrame(frame * tickStep, swarm);
+                for (int robot = 0; robot < ROBOTS; robot++) {
+                    xs[frame][robot] = swarm.get(robot).getX();
+                    ys[frame][robot] = swarm.get(robot).getY();
+                }
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void seeksToAnyTickAndRobot(@TempDir Path directory) throws Exception {
+        try (TrajectoryReader reader = TrajectoryReader.open(record(directory.resolve("walk.trj"), 1))) {
+            assertEquals(ROBOTS, reader.getRobots());
+            assertEquals(FRAMES, reader.getFrames());
+            assertEquals(-1, reader.frameOf(FRAMES));
+
+            for (int frame : new int[] { 0, 63, 64, 65, 130, FRAMES - 1 }) {
+                assertEquals(frame, reader.frameOf(frame));
+                for (int robot = 0; robot < ROBOTS; robot++) {
+                    assertEquals(xs[frame][robot], reader.getX(frame, robot));
+                    assertEquals(ys[frame][robot], reader.getY(frame, robot));
+                }
+            }
+
+            assertEquals(Set.of("WALKER"), reader.getSignals(1, 0));
+        }
+    }
+
+    @Test
+    void streamsFramesInOrder(@TempDir Path directory) throws Exception {
+        try (TrajectoryReader reader = TrajectoryReader.open(record(directory.resolve("walk.trj"), 1))) {
+            TrajectoryReader.Cursor cursor = reader.cursor();
+
+            for (int frame = 0; frame < FRAMES; frame++) {
+                assertTrue(cursor.next());
+                assertEquals(frame, cursor.getTick());
+                for (int robot = 0; robot < ROBOTS; robot++) {
+                    assertEquals(xs[frame][robot], cursor.getX(robot));
+                    assertEquals(ys[frame][robot], cursor.getY(robot));
+                    assertEquals(reader.getHeading(frame, robot), cursor.getHeading(robot));
+                    assertEquals(reader.getSpeed(frame, robot), cursor.getSpeed(robot));
+                }
+            }
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    void findsFramesOfSparseTicks(@TempDir Path directory) throws Exception {
+        try (TrajectoryReader reader = TrajectoryReader.open(record(directory.resolve("sparse.trj"), 10))) {
+            assertEquals(42, reader.frameOf(420));
+            assertEquals(-1, reader.frameOf(421));
+            assertEquals(xs[42][3], reader.getX(reader.frameOf(420), 3));
+        }
+    }
+
+    @Test
+    void readsFilesThatWereNeverClosed(@TempDir Path directory) throws Exception {
+        Path complete = record(directory.resolve("complete.trj"), 1);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(complete)).order(ByteOrder.LITTLE_ENDIAN);
+
+        // Drop the index, labels and trailer, and half of the last frame.
+        long indexOffset = bytes.getLong(bytes.limit() - 32);
+        long lastFrame = bytes.getLong((int) indexOffset + (FRAMES - 1) * 16 + 8);
+        Path cut = directory.resolve("cut.trj");
+        Files.write(cut, Arrays.copyOf(bytes.array(), (int) (lastFrame + (indexOffset - lastFrame) / 2)));
+
+        try (TrajectoryReader reader = TrajectoryReader.open(cut)) {
+            assertEquals(FRAMES - 1, reader.getFrames());
+            assertEquals(xs[FRAMES - 2][5], reader.getX(FRAMES - 2, 5));
+        }
+    }
+
+    @Test
+    void recordsExecutions(@TempDir Path directory) throws Exception {
+        RobotSpaceService service = new RobotSpaceService(ROBOTS);
+        service.compileRobotProgram(PROGRAM);
+        service.setTickScheduler(TickScheduler.unpaced());
+        service.executeRecording(100, 100, directory.resolve("execution.trj"));
+
+        try (TrajectoryReader reader = TrajectoryReader.open(directory.resolve("execution.trj"))) {
+            int last = reader.getFrames() - 1;
+            assertTrue(last > 0);
+            for (int robot = 0; robot < ROBOTS; robot++) {
+                assertEquals(service.getSwarm().get(robot).getX(), reader.getX(last, robot));
+                assertEquals(Set.of(), reader.getSignals(last, robot));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.deputation.tests.trajectory;
+
+import com.github.deputation.entities.Robot;
+import com.github.deputation.entities.RobotController;
+import com.github.deputation.trajectory.TrajectoryWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrajectoryWriterTest {
+    private static final int HEADER_BYTES = 16;
+    private static final int FRAME_HEADER_BYTES = 16;
+
+    private static ByteBuffer write(Path file, List<Robot> swarm, int frames) throws IOException {
+        try (TrajectoryWriter writer = TrajectoryWriter.create(file, swarm.size())) {
+            for (int tick = 1; tick <= frames; tick++) {
+                writer.writeFrame(tick, swarm);
+            }
+        }
+
+        return ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    void unchangedFramesOnlyTakeTheirColumnWidths(@TempDir Path directory) throws IOException {
+        List<Robot> swarm = new RobotController(100).getSwarm();
+        for (Robot robot : swarm) {
+            robot.setX(robot.getId());
+            robot.setY(-robot.getId());
+        }
+
+        ByteBuffer file = write(directory.resolve("still.trj"), swarm, 2);
+
+        assertEquals(0x4A545352, file.getInt(0));
+        assertEquals(100, file.getInt(8));
+
+        int keyframeLength = file.getInt(HEADER_BYTES + Long.BYTES);
+        int deltaOffset = HEADER_BYTES + FRAME_HEADER_BYTES + keyframeLength;
+        assertEquals(2, file.getLong(deltaOffset));
+
+        // Nothing moved, so every column of the second frame is a single zero width.
+        int columns = 4 + file.get(deltaOffset + 13);
+        assertEquals(columns, file.getInt(deltaOffset + Long.BYTES));
+        for (int column = 0; column < columns; column++) {
+            assertEquals(0, file.get(deltaOffset + FRAME_HEADER_BYTES + column));
+        }
+    }
+
+    @Test
+    void closingWritesTheTickIndex(@TempDir Path directory) throws IOException {
+        List<Robot> swarm = new RobotController(10).getSwarm();
+        ByteBuffer file = write(directory.resolve("index.trj"), swarm, 3);
+
+        int trailer = file.limit() - 32;
+        long indexOffset = file.getLong(trailer);
+        assertEquals(3, file.getLong(trailer + 16));
+        assertEquals(0x45545352, file.getInt(trailer + 24));
+
+        assertEquals(1, file.getLong((int) indexOffset));
+        assertEquals(HEADER_BYTES, file.getLong((int) indexOffset + 8));
+        assertEquals(3, file.getLong((int) indexOffset + 32));
+    }
+
+    @Test
+    void ticksMustIncrease(@TempDir Path directory) throws IOException {
+        List<Robot> swarm = new RobotController(1).getSwarm();
+
+        try (TrajectoryWriter writer = TrajectoryWriter.create(directory.resolve("order.trj"), 1)) {
+            writer.writeFrame(5, swarm);
+            assertThrows(IllegalArgumentException.class, () -> writer.writeFrame(5, swarm));
+        }
+    }
+}